@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2016 Frederik Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package link.fls.swipestack;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v4.app.Fragment;
+import android.support.v4.app.FragmentPagerAdapter;
+import android.util.SparseArray;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Swipes through thousands of cards and checks that swiped cards don't stay reachable.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SwipeStackLeakTest {
+
+    private static final int CARD_COUNT = 100000;
+    private static final int WARM_UP_SWIPES = 500;
+    private static final int SWIPES = 5000;
+    private static final int TRACKED_CARDS = 100;
+    private static final int PAYLOAD_BYTES = 16 * 1024;
+    private static final long MAX_HEAP_GROWTH_BYTES = 4 * 1024 * 1024;
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+
+    private SwipeStack mSwipeStack;
+    private TestAdapter mAdapter;
+
+    @Before
+    public void setUp() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                Context context = InstrumentationRegistry.getTargetContext();
+                mAdapter = new TestAdapter(CARD_COUNT);
+                mSwipeStack = new SwipeStack(context);
+                mSwipeStack.setAdapter(mAdapter, LayoutInflater.from(context));
+                layout();
+            }
+        });
+    }
+
+    @Test
+    public void swipedCardsAreReleased() {
+        final List<WeakReference<View>> trackedViews = new ArrayList<>();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                for (int x = 0; x < TRACKED_CARDS; x++) {
+                    trackedViews.add(new WeakReference<>(mSwipeStack.getTopView()));
+                    swipe();
+                }
+            }
+        });
+
+        collectGarbage();
+
+        for (WeakReference<View> trackedView : trackedViews) {
+            assertNull(trackedView.get());
+        }
+        assertTrue(mAdapter.getFragmentCount() <= SwipeStack.DEFAULT_STACK_SIZE + 1);
+    }
+
+    @Test
+    public void heapStaysFlat() {
+        swipe(WARM_UP_SWIPES);
+        long heapBefore = collectGarbage();
+
+        swipe(SWIPES);
+        long heapAfter = collectGarbage();
+
+        assertEquals(WARM_UP_SWIPES + SWIPES, mAdapter.getReleaseCount());
+        assertTrue("Heap grew by " + (heapAfter - heapBefore) + " bytes",
+                heapAfter - heapBefore < MAX_HEAP_GROWTH_BYTES);
+    }
+
+    private void swipe(final int count) {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                for (int x = 0; x < count; x++) {
+                    swipe();
+                }
+            }
+        });
+    }
+
+    /**
+     * Dismisses the top view without waiting for its exit animation.
+     */
+    private void swipe() {
+        View topView = mSwipeStack.getTopView();
+        mSwipeStack.onSwipeDismiss(topView, 0);
+        mSwipeStack.onViewSwiped(topView, true);
+        layout();
+    }
+
+    private void layout() {
+        mSwipeStack.measure(
+                View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        mSwipeStack.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    private static long collectGarbage() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int x = 0; x < 3; x++) {
+            runtime.gc();
+            System.runFinalization();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static class TestAdapter extends FragmentPagerAdapter
+            implements SwipeStack.SwipeStackReleaseListener {
+
+        private final SparseArray<TestFragment> mFragments = new SparseArray<>();
+        private final int mCount;
+        private int mReleaseCount;
+
+        TestAdapter(int count) {
+            // The stack never adds the fragments to a FragmentManager.
+            super(null);
+            mCount = count;
+        }
+
+        @Override
+        public Fragment getItem(int position) {
+            TestFragment fragment = mFragments.get(position);
+            if (fragment == null) {
+                fragment = new TestFragment();
+                mFragments.put(position, fragment);
+            }
+            return fragment;
+        }
+
+        @Override
+        public int getCount() {
+            return mCount;
+        }
+
+        @Override
+        public void onViewReleased(int position, View view) {
+            TestFragment fragment = mFragments.get(position);
+            if (fragment != null && fragment.mView == view) {
+                mFragments.remove(position);
+            }
+            mReleaseCount++;
+        }
+
+        int getFragmentCount() {
+            return mFragments.size();
+        }
+
+        int getReleaseCount() {
+            return mReleaseCount;
+        }
+    }
+
+    public static class TestFragment extends Fragment {
+
+        private View mView;
+
+        @Override
+        public View onCreateView(LayoutInflater inflater, ViewGroup container,
+                                 Bundle savedInstanceState) {
+            mView = new View(inflater.getContext());
+            // Makes a leaked card show up in the heap.
+            mView.setTag(new byte[PAYLOAD_BYTES]);
+            return mView;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2016 Frederik Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package link.fls.swipestack;
+
+/**
+ * Extrapolates where a pointer will be a short time ahead from its most recent samples.
+ * <p>
+ * The offset is the recent velocity times the prediction horizon, clamped to a maximum
+ * distance. Whenever a new sample shows that the previous prediction overshot, the
+ * predictor trusts the velocity less until the pointer moves steadily again.
+ * <p>
+ * This class has no Android dependencies, so recorded drags can be replayed through
+ * {@link #evaluate(long[], float[], float[], long, float)} on the plain JVM.
+ */
+public class MotionPredictor {
+
+    public static final long DEFAULT_HORIZON_MILLIS = 16;
+
+    private static final int MAX_SAMPLES = 4;
+    private static final long MAX_SAMPLE_AGE_MILLIS = 50;
+    private static final float MIN_GAIN = 0f;
+    private static final float GAIN_STEP = .25f;
+    private static final float OVERSHOOT_TOLERANCE = .5f;
+
+    private final long[] mTimes = new long[MAX_SAMPLES];
+    private final float[] mX = new float[MAX_SAMPLES];
+    private final float[] mY = new float[MAX_SAMPLES];
+    private int mHead = -1;
+    private int mCount;
+
+    private long mHorizonMillis = DEFAULT_HORIZON_MILLIS;
+    private float mMaxDistance;
+    private float mGain = 1f;
+    private float mOffsetX;
+    private float mOffsetY;
+
+    /**
+     * Creates a predictor.
+     *
+     * @param maxDistance The maximum distance a prediction may be ahead of the last sample.
+     */
+    public MotionPredictor(float maxDistance) {
+        mMaxDistance = maxDistance;
+    }
+
+    /**
+     * Forgets all samples, e.g. when a new gesture starts.
+     */
+    public void reset() {
+        mHead = -1;
+        mCount = 0;
+        mGain = 1f;
+        mOffsetX = 0;
+        mOffsetY = 0;
+    }
+
+    /**
+     * Adds a pointer sample and updates the predicted offset.
+     *
+     * @param timeMillis The time of the sample.
+     * @param x          The x position of the pointer.
+     * @param y          The y position of the pointer.
+     */
+    public void addSample(long timeMillis, float x, float y) {
+        if (mCount > 0) {
+            mGain = hasOvershot(timeMillis, x, y)
+                    ? Math.max(MIN_GAIN, mGain - 2 * GAIN_STEP)
+                    : Math.min(1f, mGain + GAIN_STEP);
+        }
+
+        mHead = (mHead + 1) % MAX_SAMPLES;
+        mTimes[mHead] = timeMillis;
+        mX[mHead] = x;
+        mY[mHead] = y;
+        mCount = Math.min(mCount + 1, MAX_SAMPLES);
+
+        updateOffset();
+    }
+
+    /**
+     * Returns whether the previous prediction, scaled to the time which actually passed until
+     * this sample, ended up past the pointer.
+     */
+    private boolean hasOvershot(long timeMillis, float x, float y) {
+        float offset = (float) Math.hypot(mOffsetX, mOffsetY);
+        if (offset == 0 || mHorizonMillis <= 0) return false;
+
+        float scale = (float) (timeMillis - mTimes[mHead]) / mHorizonMillis;
+        float predictedX = mX[mHead] + mOffsetX * scale;
+        float predictedY = mY[mHead] + mOffsetY * scale;
+        float overshoot = ((predictedX - x) * mOffsetX + (predictedY - y) * mOffsetY) / offset;
+        return overshoot > OVERSHOOT_TOLERANCE;
+    }
+
+    private void updateOffset() {
+        mOffsetX = 0;
+        mOffsetY = 0;
+
+        int oldest = mHead;
+        for (int x = 1; x < mCount; x++) {
+            int index = (mHead - x + MAX_SAMPLES) % MAX_SAMPLES;
+            if (mTimes[mHead] - mTimes[index] > MAX_SAMPLE_AGE_MILLIS) break;
+            oldest = index;
+        }
+
+        long duration = mTimes[mHead] - mTimes[oldest];
+        if (duration <= 0) return;
+
+        float factor = mGain * mHorizonMillis / duration;
+        float offsetX = (mX[mHead] - mX[oldest]) * factor;
+        float offsetY = (mY[mHead] - mY[oldest]) * factor;
+
+        float distance = (float) Math.hypot(offsetX, offsetY);
+        if (distance > mMaxDistance) {
+            offsetX *= mMaxDistance / distance;
+            offsetY *= mMaxDistance / distance;
+        }
+        mOffsetX = offsetX;
+        mOffsetY = offsetY;
+    }
+
+    /**
+     * Returns how far ahead of the last sample the pointer is expected on the x axis.
+     */
+    public float getOffsetX() {
+        return mOffsetX;
+    }
+
+    /**
+     * Returns how far ahead of the last sample the pointer is expected on the y axis.
+     */
+    public float getOffsetY() {
+        return mOffsetY;
+    }
+
+    /**
+     * Sets how far ahead of the last sample the predictor looks, usually one frame.
+     *
+     * @param horizonMillis The horizon in milliseconds.
+     */
+    public void setHorizon(long horizonMillis) {
+        mHorizonMillis = horizonMillis;
+    }
+
+    public long getHorizon() {
+        return mHorizonMillis;
+    }
+
+    public void setMaxDistance(float maxDistance) {
+        mMaxDistance = maxDistance;
+    }
+
+    /**
+     * Replays a recorded drag and compares how far the drawn position lags behind the
+     * pointer one horizon later, with and without prediction.
+     *
+     * @param times         The sample times, in ascending order.
+     * @param xs            The x positions of the samples.
+     * @param ys            The y positions of the samples.
+     * @param horizonMillis The prediction horizon.
+     * @param maxDistance   The maximum prediction distance.
+     * @return The mean errors of both variants.
+     */
+    public static Evaluation evaluate(long[] times, float[] xs, float[] ys,
+                                      long horizonMillis, float maxDistance) {
+        MotionPredictor predictor = new MotionPredictor(maxDistance);
+        predictor.setHorizon(horizonMillis);
+
+        double errorWithout = 0;
+        double errorWith = 0;
+        int samples = 0;
+        int next = 0;
+
+        for (int x = 0; x < times.length; x++) {
+            predictor.addSample(times[x], xs[x], ys[x]);
+
+            long targetTime = times[x] + horizonMillis;
+            if (targetTime > times[times.length - 1]) break;
+            while (times[next + 1] < targetTime) next++;
+
+            long span = times[next + 1] - times[next];
+            float fraction = span == 0 ? 0 : (float) (targetTime - times[next]) / span;
+            float targetX = xs[next] + (xs[next + 1] - xs[next]) * fraction;
+            float targetY = ys[next] + (ys[next + 1] - ys[next]) * fraction;
+
+            errorWithout += Math.hypot(targetX - xs[x], targetY - ys[x]);
+            errorWith += Math.hypot(targetX - (xs[x] + predictor.getOffsetX()),
+                    targetY - (ys[x] + predictor.getOffsetY()));
+            samples++;
+        }
+
+        if (samples == 0) return new Evaluation(0, 0, 0);
+        return new Evaluation(samples, (float) (errorWithout / samples),
+                (float) (errorWith / samples));
+    }
+
+    /**
+     * The result of {@link #evaluate(long[], float[], float[], long, float)}.
+     */
+    public static class Evaluation {
+        public final int samples;
+        public final float meanErrorWithoutPrediction;
+        public final float meanErrorWithPrediction;
+
+        Evaluation(int samples, float meanErrorWithoutPrediction, float meanErrorWithPrediction) {
+            this.samples = samples;
+            this.meanErrorWithoutPrediction = meanErrorWithoutPrediction;
+            this.meanErrorWithPrediction = meanErrorWithPrediction;
+        }
+    }
+}
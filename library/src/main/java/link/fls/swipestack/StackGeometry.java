@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2016 Frederik Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package link.fls.swipestack;
+
+/**
+ * Slot transforms shared by {@link SwipeStack} and {@link SwipeStackLayoutManager}.
+ * Slots are indexed bottom to top, so {@code count - 1} is the top view.
+ */
+final class StackGeometry {
+
+    static final float STACKED_VIEW_ALPHA = .7f;
+
+    private StackGeometry() {
+    }
+
+    static float getWeight(int index, int count) {
+        return 1 - 0.1f * (count - index - 1);
+    }
+
+    static float getAlpha(int index, int count) {
+        return index == count - 1 ? 1f : STACKED_VIEW_ALPHA;
+    }
+
+    static float getScale(float scaleFactor, int index, int count) {
+        return (float) Math.pow(scaleFactor, count - index);
+    }
+
+    static int getOffsetY(int spacing, int index, int count) {
+        return ((count - 1) * spacing) + (index * spacing);
+    }
+}
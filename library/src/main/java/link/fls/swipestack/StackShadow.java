@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2016 Frederik Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package link.fls.swipestack;
+
+import android.graphics.Bitmap;
+import android.graphics.BlurMaskFilter;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+
+/**
+ * Draws a static shadow behind a stacked view, either from a (nine-patch) drawable or from a
+ * small blurred bitmap which is rendered once and stretched like a nine-patch.
+ */
+final class StackShadow {
+
+    private static final int SHADOW_COLOR = 0x44000000;
+
+    private final Drawable mDrawable;
+    private final Rect mDrawablePadding = new Rect();
+
+    private Bitmap mBitmap;
+    private int mRadius;
+    private int mInset;
+    private final Paint mPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect mSrc = new Rect();
+    private final RectF mDst = new RectF();
+
+    StackShadow(Drawable drawable) {
+        mDrawable = drawable;
+        mDrawable.getPadding(mDrawablePadding);
+    }
+
+    StackShadow(int radius, int cornerRadius) {
+        mDrawable = null;
+        mRadius = radius;
+        mInset = radius + cornerRadius;
+
+        int size = 2 * mInset + 1;
+        mBitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ALPHA_8);
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setColor(SHADOW_COLOR);
+        if (radius > 0) {
+            paint.setMaskFilter(new BlurMaskFilter(radius, BlurMaskFilter.Blur.NORMAL));
+        }
+        new Canvas(mBitmap).drawRoundRect(
+                new RectF(radius, radius, size - radius, size - radius),
+                cornerRadius, cornerRadius, paint);
+    }
+
+    /**
+     * Draws the shadow of a child with the child's current transformation. Must be called
+     * with the canvas of the child's parent, before the child is drawn.
+     */
+    void draw(Canvas canvas, View view) {
+        int width = view.getWidth();
+        int height = view.getHeight();
+        if (width == 0 || height == 0) return;
+
+        int alpha = (int) (255 * view.getAlpha());
+        int saveCount = canvas.save();
+        canvas.translate(view.getLeft(), view.getTop());
+        canvas.concat(view.getMatrix());
+
+        if (mDrawable != null) {
+            mDrawable.setBounds(-mDrawablePadding.left, -mDrawablePadding.top,
+                    width + mDrawablePadding.right, height + mDrawablePadding.bottom);
+            mDrawable.setAlpha(alpha);
+            mDrawable.draw(canvas);
+        } else {
+            mPaint.setAlpha(alpha);
+            // The shadow falls slightly below the view.
+            drawSlices(canvas, -mRadius, -mRadius / 2, width + mRadius, height + mRadius * 3 / 2);
+        }
+
+        canvas.restoreToCount(saveCount);
+    }
+
+    private void drawSlices(Canvas canvas, int left, int top, int right, int bottom) {
+        int size = mBitmap.getWidth();
+        int[] srcX = {0, mInset, mInset + 1, size};
+        int[] srcY = srcX;
+        int[] dstX = {left, left + mInset, right - mInset, right};
+        int[] dstY = {top, top + mInset, bottom - mInset, bottom};
+
+        for (int y = 0; y < 3; y++) {
+            for (int x = 0; x < 3; x++) {
+                // The center is covered by the view itself.
+                if (x == 1 && y == 1) continue;
+                if (dstX[x + 1] <= dstX[x] || dstY[y + 1] <= dstY[y]) continue;
+                mSrc.set(srcX[x], srcY[y], srcX[x + 1], srcY[y + 1]);
+                mDst.set(dstX[x], dstY[y], dstX[x + 1], dstY[y + 1]);
+                canvas.drawBitmap(mBitmap, mSrc, mDst, mPaint);
+            }
+        }
+    }
+}
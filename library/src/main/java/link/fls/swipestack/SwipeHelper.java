@@ -46,6 +46,10 @@ public class SwipeHelper implements View.OnTouchListener {
 
     private boolean isMoving = false;
 
+    private MotionPredictor mMotionPredictor;
+    private float mPredictedOffsetX;
+    private float mPredictedOffsetY;
+
     public SwipeHelper(SwipeStack swipeStack) {
         mSwipeStack = swipeStack;
     }
@@ -53,8 +57,7 @@ public class SwipeHelper implements View.OnTouchListener {
     @Override
     public boolean onTouch(View v, MotionEvent event) {
 
-        int pointerIndex;
-        float dx, dy;
+        boolean traced;
 
         switch (event.getAction()) {
             case MotionEvent.ACTION_DOWN:
@@ -71,6 +74,12 @@ public class SwipeHelper implements View.OnTouchListener {
                 mDownX = event.getX(mPointerId);
                 mDownY = event.getY(mPointerId);
 
+                mPredictedOffsetX = mPredictedOffsetY = 0;
+                if (mMotionPredictor != null) {
+                    mMotionPredictor.reset();
+                    mMotionPredictor.addSample(event.getEventTime(), event.getRawX(), event.getRawY());
+                }
+
                 return true;
 
             case MotionEvent.ACTION_MOVE:
@@ -80,48 +89,39 @@ public class SwipeHelper implements View.OnTouchListener {
                     return false;
                 }
 
-                pointerIndex = event.findPointerIndex(mPointerId);
-                if (pointerIndex < 0) return false;
-
-                dx = event.getX(pointerIndex) - mDownX;
-                dy = event.getY(pointerIndex) - mDownY;
-
-                float newX = mObservedView.getX() + dx;
-                float newY = mObservedView.getY() + dy;
-
-                mObservedView.setX(newX);
-                mObservedView.setY(newY);
-
-                float dragDistanceX = newX - mInitialX;
-                float swipeProgress = Math.min(Math.max(
-                        dragDistanceX / mSwipeStack.getWidth(), -1), 1);
-
-                maxDX = Math.max(maxDX, Math.abs(dx));
-                maxDY = Math.max(maxDY, Math.abs(dy));
-
-
-                if (Math.abs(dx) > mClickThreshold && Math.abs(dy) > mClickThreshold) {
-                    mSwipeStack.onSwipeProgress(swipeProgress);
+                traced = SwipeStackTrace.begin("SwipeHelper.onMove",
+                        mSwipeStack.getCurrentPosition(), 0);
+                try {
+                    return onMove(event);
+                } finally {
+                    SwipeStackTrace.end(traced);
                 }
 
-                if (mRotateDegrees > 0) {
-                    float rotation = mRotateDegrees * swipeProgress;
-                    mObservedView.setRotation(rotation);
+            case MotionEvent.ACTION_UP:
+                if (!isMoving || (maxDX < mClickThreshold && maxDY < mClickThreshold)) {
+                    mObservedView.performClick();
                 }
+                v.getParent().requestDisallowInterceptTouchEvent(false);
 
-                if (mOpacityEnd < 1f) {
-                    float alpha = 1 - Math.min(Math.abs(swipeProgress * 2), 1);
-                    mObservedView.setAlpha(alpha);
+                traced = SwipeStackTrace.begin("SwipeHelper.checkViewPosition",
+                        mSwipeStack.getCurrentPosition(), 0);
+                try {
+                    checkViewPosition();
+                } finally {
+                    SwipeStackTrace.end(traced);
                 }
+                mPredictedOffsetX = mPredictedOffsetY = 0;
 
                 return true;
 
-            case MotionEvent.ACTION_UP:
-                if (!isMoving || (maxDX < mClickThreshold && maxDY < mClickThreshold)) {
-                    mObservedView.performClick();
-                }
+            case MotionEvent.ACTION_CANCEL:
+                if (!mListenForTouchEvents) return false;
+
+                // Snap back so the stack doesn't stay in motion.
+                mPredictedOffsetX = mPredictedOffsetY = 0;
                 v.getParent().requestDisallowInterceptTouchEvent(false);
-                checkViewPosition();
+                mSwipeStack.onSwipeEnd();
+                resetViewPosition();
 
                 return true;
 
@@ -130,13 +130,64 @@ public class SwipeHelper implements View.OnTouchListener {
         return false;
     }
 
+    private boolean onMove(MotionEvent event) {
+        int pointerIndex = event.findPointerIndex(mPointerId);
+        if (pointerIndex < 0) return false;
+
+        float dx = event.getX(pointerIndex) - mDownX;
+        float dy = event.getY(pointerIndex) - mDownY;
+
+        // The event is relative to the view, so a previous prediction is already
+        // taken out of dx / dy here.
+        float newX = mObservedView.getX() + dx;
+        float newY = mObservedView.getY() + dy;
+
+        mPredictedOffsetX = mPredictedOffsetY = 0;
+        if (mMotionPredictor != null && pointerIndex == 0) {
+            mMotionPredictor.addSample(event.getEventTime(), event.getRawX(), event.getRawY());
+            mPredictedOffsetX = mMotionPredictor.getOffsetX();
+            mPredictedOffsetY = mMotionPredictor.getOffsetY();
+        }
+
+        mObservedView.setX(newX + mPredictedOffsetX);
+        mObservedView.setY(newY + mPredictedOffsetY);
+
+        float dragDistanceX = newX - mInitialX;
+        float swipeProgress = Math.min(Math.max(
+                dragDistanceX / mSwipeStack.getWidth(), -1), 1);
+
+        maxDX = Math.max(maxDX, Math.abs(dx));
+        maxDY = Math.max(maxDY, Math.abs(dy));
+
+
+        if (Math.abs(dx) > mClickThreshold && Math.abs(dy) > mClickThreshold) {
+            mSwipeStack.onSwipeProgress(swipeProgress);
+        }
+
+        if (mRotateDegrees > 0) {
+            float rotation = mRotateDegrees * swipeProgress;
+            mObservedView.setRotation(rotation);
+        }
+
+        if (mOpacityEnd < 1f) {
+            float alpha = 1 - Math.min(Math.abs(swipeProgress * 2), 1);
+            mObservedView.setAlpha(alpha);
+        }
+
+        return true;
+    }
+
     private void checkViewPosition() {
         if (!mSwipeStack.isEnabled()) {
+            mSwipeStack.onSwipeEnd();
             resetViewPosition();
             return;
         }
 
-        float viewCenterHorizontal = mObservedView.getX() + (mObservedView.getWidth() / 2);
+        // Decide on the real finger position, not the predicted one. The view stays where it
+        // is drawn, the animations below start from there.
+        float viewCenterHorizontal = mObservedView.getX() - mPredictedOffsetX
+                + (mObservedView.getWidth() / 2);
         float parentFirstThird = mSwipeStack.getWidth() / 3f;
         float parentLastThird = parentFirstThird * 2;
 
@@ -163,19 +214,35 @@ public class SwipeHelper implements View.OnTouchListener {
                 .setListener(null);
     }
 
+    /**
+     * Moves the observed view back to its initial x position and leaves its y position,
+     * scale and alpha to the stack, which restacks it while it snaps back.
+     */
+    void resetHorizontalPosition() {
+        mObservedView.animate().cancel();
+        mObservedView.animate()
+                .x(mInitialX)
+                .rotation(0)
+                .setDuration(mAnimationDuration)
+                .setInterpolator(new OvershootInterpolator(1.4f))
+                .setListener(null);
+    }
+
     private void swipeViewToLeft(int duration) {
         if (!mListenForTouchEvents) return;
         mListenForTouchEvents = false;
-        mObservedView.animate().cancel();
-        mObservedView.animate()
-                .x(-mSwipeStack.getWidth() + mObservedView.getX())
+        final View swipedView = mObservedView;
+        mSwipeStack.onSwipeDismiss(swipedView, duration);
+        swipedView.animate().cancel();
+        swipedView.animate()
+                .x(-mSwipeStack.getWidth() + swipedView.getX())
                 .rotation(-mRotateDegrees)
                 .alpha(0f)
                 .setDuration(duration)
                 .setListener(new AnimationUtils.AnimationEndListener() {
                     @Override
                     public void onAnimationEnd(Animator animation) {
-                        mSwipeStack.onViewSwipedToLeft();
+                        mSwipeStack.onViewSwiped(swipedView, true);
                     }
                 });
     }
@@ -183,16 +250,18 @@ public class SwipeHelper implements View.OnTouchListener {
     private void swipeViewToRight(int duration) {
         if (!mListenForTouchEvents) return;
         mListenForTouchEvents = false;
-        mObservedView.animate().cancel();
-        mObservedView.animate()
-                .x(mSwipeStack.getWidth() + mObservedView.getX())
+        final View swipedView = mObservedView;
+        mSwipeStack.onSwipeDismiss(swipedView, duration);
+        swipedView.animate().cancel();
+        swipedView.animate()
+                .x(mSwipeStack.getWidth() + swipedView.getX())
                 .rotation(mRotateDegrees)
                 .alpha(0f)
                 .setDuration(duration)
                 .setListener(new AnimationUtils.AnimationEndListener() {
                     @Override
                     public void onAnimationEnd(Animator animation) {
-                        mSwipeStack.onViewSwipedToRight();
+                        mSwipeStack.onViewSwiped(swipedView, false);
                     }
                 });
     }
@@ -226,6 +295,10 @@ public class SwipeHelper implements View.OnTouchListener {
         mOpacityEnd = alpha;
     }
 
+    public void setMotionPredictor(MotionPredictor motionPredictor) {
+        mMotionPredictor = motionPredictor;
+    }
+
     public void swipeViewToLeft() {
         swipeViewToLeft(mAnimationDuration);
     }
@@ -16,20 +16,34 @@
 
 package link.fls.swipestack;
 
+import android.animation.ValueAnimator;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.database.DataSetObserver;
+import android.graphics.Canvas;
+import android.graphics.RectF;
+import android.graphics.Region;
+import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.os.Parcelable;
+import android.os.SystemClock;
 import android.support.annotation.Nullable;
 import android.support.v4.app.FragmentPagerAdapter;
 import android.util.AttributeSet;
+import android.util.SparseArray;
+import android.view.Choreographer;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.WindowManager;
 import android.widget.FrameLayout;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 public class SwipeStack extends ViewGroup {
@@ -45,6 +59,15 @@ public class SwipeStack extends ViewGroup {
     public static final float DEFAULT_SWIPE_OPACITY = 1f;
     public static final float DEFAULT_SCALE_FACTOR = 1f;
     public static final boolean DEFAULT_DISABLE_HW_ACCELERATION = true;
+    public static final boolean DEFAULT_STAGED_POPULATION = false;
+    public static final boolean DEFAULT_CLIP_STACKED_VIEWS = false;
+    public static final boolean DEFAULT_BAKED_SHADOWS = false;
+    public static final boolean DEFAULT_TOUCH_PREDICTION = false;
+    public static final boolean DEFAULT_CIRCULAR = true;
+    public static final int DEFAULT_RETAINED_SWIPED_VIEWS = 0;
+    public static final boolean DEFAULT_PREPARE_NEXT_VIEW = false;
+    public static final float DEFAULT_PREPARE_THRESHOLD = .25f;
+    public static final float DEFAULT_PREPARE_VELOCITY = 1.5f;
 
     private static final String KEY_SUPER_STATE = "superState";
     private static final String KEY_CURRENT_INDEX = "currentIndex";
@@ -54,7 +77,7 @@ public class SwipeStack extends ViewGroup {
     private Random mRandom;
     private int mAllowedSwipeDirections;
     private int mAnimationDuration;
-    private int mCurrentViewIndex;
+    private SwipeStackModel mModel;
     private int mDefaultNumberOfStackedViews;
     private int mNumberOfStackedViews;
     private int mViewSpacing;
@@ -63,11 +86,83 @@ public class SwipeStack extends ViewGroup {
     private float mSwipeOpacity;
     private float mScaleFactor;
     private boolean mDisableHwAcceleration;
+    private boolean mStagedPopulation;
+    private boolean mClipStackedViews;
+    private boolean mStackInMotion;
+    private final RectF mClipRect = new RectF();
+    private StackShadow mStackShadow;
+    private boolean mTouchPrediction;
+    private boolean mCircular;
+    private int mRetainedSwipedViews;
+    private final ArrayDeque<View> mSwipedViews = new ArrayDeque<>();
+    private boolean mPrepareNextView;
+    private float mPrepareThreshold;
+    private float mPrepareVelocity;
+    private int mPreparedPosition = SwipeStackModel.NO_POSITION;
+    private View mPreparedView;
+    private boolean mPrepareIdleHandlerAdded;
+    private float mLastSwipeProgress;
+    private long mLastSwipeProgressTime;
     private boolean mIsFirstLayout = true;
+    private boolean mNeedsReorder;
     private boolean zeroIndexViewNotified = false;
 
+    private Choreographer mChoreographer;
+    private ValueAnimator mPromotionAnimator;
+    private ValueAnimator mRestackAnimator;
+    private float mPendingPromotion;
+    private float mAppliedPromotion;
+    private float mRestackFraction = 1f;
+    private boolean mDragging;
+    private boolean mPromotionFrameScheduled;
+
+    private final Choreographer.FrameCallback mPromotionFrameCallback =
+            new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    mPromotionFrameScheduled = false;
+                    applyPromotion(mPendingPromotion);
+                }
+            };
+
+    private final MessageQueue.IdleHandler mPrepareIdleHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            mPrepareIdleHandlerAdded = false;
+            if (mPreparedPosition != SwipeStackModel.NO_POSITION && mPreparedView == null
+                    && mAdapter != null) {
+                boolean traced = SwipeStackTrace.begin("prepareNextView",
+                        mPreparedPosition, getChildCount());
+                try {
+                    mPreparedView = createCardView(mPreparedPosition, getChildCount());
+                } finally {
+                    SwipeStackTrace.end(traced);
+                }
+            }
+            return false;
+        }
+    };
+
+    private final Runnable mNextStageRunnable = new Runnable() {
+        @Override
+        public void run() {
+            requestLayout();
+        }
+    };
+
+    private final Runnable mStackSettledRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mStackInMotion = false;
+            invalidate();
+        }
+    };
+
     private View mTopView;
     private SwipeHelper mSwipeHelper;
+    private SwipeStackViewPool mViewPool;
+    private SwipeStackRetainedCache mRetainedCache;
+    private boolean mRetainedPositionTaken;
     private DataSetObserver mDataObserver;
     private SwipeStackListener mListener;
     private SwipeStackIndexListener mIndexListener;
@@ -115,6 +210,37 @@ public class SwipeStack extends ViewGroup {
             mDisableHwAcceleration =
                     attrs.getBoolean(R.styleable.SwipeStack_disable_hw_acceleration,
                             DEFAULT_DISABLE_HW_ACCELERATION);
+            mStagedPopulation =
+                    attrs.getBoolean(R.styleable.SwipeStack_staged_population,
+                            DEFAULT_STAGED_POPULATION);
+            mClipStackedViews =
+                    attrs.getBoolean(R.styleable.SwipeStack_clip_stacked_views,
+                            DEFAULT_CLIP_STACKED_VIEWS);
+            mTouchPrediction =
+                    attrs.getBoolean(R.styleable.SwipeStack_touch_prediction,
+                            DEFAULT_TOUCH_PREDICTION);
+            mCircular =
+                    attrs.getBoolean(R.styleable.SwipeStack_circular, DEFAULT_CIRCULAR);
+            mRetainedSwipedViews =
+                    attrs.getInt(R.styleable.SwipeStack_retained_swiped_views,
+                            DEFAULT_RETAINED_SWIPED_VIEWS);
+            mPrepareNextView =
+                    attrs.getBoolean(R.styleable.SwipeStack_prepare_next_view,
+                            DEFAULT_PREPARE_NEXT_VIEW);
+            mPrepareThreshold =
+                    attrs.getFloat(R.styleable.SwipeStack_prepare_threshold,
+                            DEFAULT_PREPARE_THRESHOLD);
+            mPrepareVelocity =
+                    attrs.getFloat(R.styleable.SwipeStack_prepare_velocity,
+                            DEFAULT_PREPARE_VELOCITY);
+
+            Drawable shadowDrawable = attrs.getDrawable(R.styleable.SwipeStack_shadow_drawable);
+            if (shadowDrawable != null) {
+                mStackShadow = new StackShadow(shadowDrawable);
+            } else if (attrs.getBoolean(R.styleable.SwipeStack_baked_shadows,
+                    DEFAULT_BAKED_SHADOWS)) {
+                mStackShadow = createBakedShadow();
+            }
         } finally {
             attrs.recycle();
         }
@@ -122,6 +248,8 @@ public class SwipeStack extends ViewGroup {
 
     private void initialize() {
         mRandom = new Random();
+        mChoreographer = Choreographer.getInstance();
+        mModel = new SwipeStackModel(mNumberOfStackedViews, mCircular);
 
         setClipToPadding(false);
         setClipChildren(false);
@@ -130,22 +258,47 @@ public class SwipeStack extends ViewGroup {
         mSwipeHelper.setAnimationDuration(mAnimationDuration);
         mSwipeHelper.setRotation(mSwipeRotation);
         mSwipeHelper.setOpacityEnd(mSwipeOpacity);
+        setTouchPrediction(mTouchPrediction);
 
         mDataObserver = new DataSetObserver() {
             @Override
             public void onChanged() {
                 super.onChanged();
+                if (mViewPool != null) mViewPool.clear(mAdapter);
+                onDataSetChanged();
                 invalidate();
                 requestLayout();
             }
         };
     }
 
+    @Override
+    protected void onDetachedFromWindow() {
+        cancelPromotion();
+        cancelRestack();
+        removeCallbacks(mNextStageRunnable);
+        removeCallbacks(mStackSettledRunnable);
+        // Pooled views hold on to the context, so don't keep them beyond this stack.
+        if (mViewPool != null && mAdapter != null) mViewPool.clear(mAdapter);
+        if (mPrepareIdleHandlerAdded) {
+            Looper.myQueue().removeIdleHandler(mPrepareIdleHandler);
+            mPrepareIdleHandlerAdded = false;
+        }
+        mStackInMotion = false;
+        super.onDetachedFromWindow();
+    }
+
     @Override
     public Parcelable onSaveInstanceState() {
         Bundle bundle = new Bundle();
         bundle.putParcelable(KEY_SUPER_STATE, super.onSaveInstanceState());
-        bundle.putInt(KEY_CURRENT_INDEX, mCurrentViewIndex - getChildCount());
+        int position = Math.max(getCurrentPosition(), 0);
+        bundle.putInt(KEY_CURRENT_INDEX, position);
+        if (mRetainedCache != null) {
+            mRetainedCache.setTopPosition(position);
+            // The position is meant for the stack which replaces this one.
+            mRetainedPositionTaken = true;
+        }
         return bundle;
     }
 
@@ -153,7 +306,11 @@ public class SwipeStack extends ViewGroup {
     public void onRestoreInstanceState(Parcelable state) {
         if (state instanceof Bundle) {
             Bundle bundle = (Bundle) state;
-            mCurrentViewIndex = bundle.getInt(KEY_CURRENT_INDEX);
+            releaseChildren();
+            removeAllViewsInLayout();
+            discardPreparedView();
+            mModel.reset(bundle.getInt(KEY_CURRENT_INDEX));
+            requestLayout();
             state = bundle.getParcelable(KEY_SUPER_STATE);
         }
 
@@ -164,49 +321,281 @@ public class SwipeStack extends ViewGroup {
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
 
         if (mAdapter == null || mAdapter.getCount() == 0) {
-            mCurrentViewIndex = 0;
+            releaseChildren();
+            mModel.reset(0);
+            discardPreparedView();
             removeAllViewsInLayout();
             return;
         }
         boolean reorder = false;
+        int viewsToAdd = mStagedPopulation ? 1 : mNumberOfStackedViews;
 
-        for (int x = getChildCount(); x < mNumberOfStackedViews && mCurrentViewIndex < mAdapter.getCount();
-             x++) {
+        while (getChildCount() < mNumberOfStackedViews && mModel.canFill() && viewsToAdd > 0) {
             addNextView();
+            viewsToAdd--;
             reorder = true;
         }
 
-        if (reorder) {
-            reorderItems();
+        if ((reorder || mNeedsReorder) && mDragging) {
+            // The dragged view and the views promoted by the drag are restacked once the
+            // drag ends, so no two animations drive the same view.
+            mNeedsReorder = true;
+        } else if (reorder || mNeedsReorder) {
+            mNeedsReorder = false;
+            boolean traced = SwipeStackTrace.begin("reorderItems", getCurrentPosition(), 0);
+            try {
+                reorderItems();
+            } finally {
+                SwipeStackTrace.end(traced);
+            }
+        }
+
+        if (mStagedPopulation && mModel.canFill()) {
+            // Add the views below the top view one frame at a time.
+            removeCallbacks(mNextStageRunnable);
+            postOnAnimation(mNextStageRunnable);
         }
 
         mIsFirstLayout = false;
     }
 
     private void addNextView() {
-        if (mCurrentViewIndex < mAdapter.getCount()) {
-            View bottomView = mAdapter.getItem(mCurrentViewIndex).onCreateView(layoutInflater, null, null);
-            bottomView.setTag(R.id.new_view, true);
+        int position = mModel.fill();
+        if (position != SwipeStackModel.NO_POSITION) {
+            boolean traced = SwipeStackTrace.begin("addNextView", position, getChildCount());
+            try {
+                View bottomView = takePreparedView(position);
+                if (bottomView == null) {
+                    bottomView = createCardView(position, getChildCount());
+                }
+                addViewInLayout(bottomView, 0, bottomView.getLayoutParams(), true);
+            } finally {
+                SwipeStackTrace.end(traced);
+            }
+        }
+    }
+
+    /**
+     * Returns the view prepared during the last drag if it was prepared for the given position.
+     */
+    private View takePreparedView(int position) {
+        if (mPreparedPosition != position) {
+            discardPreparedView();
+            return null;
+        }
+
+        View preparedView = mPreparedView;
+        mPreparedView = null;
+        mPreparedPosition = SwipeStackModel.NO_POSITION;
+        return preparedView;
+    }
+
+    private void discardPreparedView() {
+        if (mPreparedPosition == SwipeStackModel.NO_POSITION) return;
+
+        if (mAdapter instanceof SwipeStackPreparationListener) {
+            ((SwipeStackPreparationListener) mAdapter).onPreparationCancelled(mPreparedPosition);
+        }
+        if (mPreparedView != null) {
+            notifyViewReleased(mPreparedPosition, mPreparedView);
+        }
+        mPreparedView = null;
+        mPreparedPosition = SwipeStackModel.NO_POSITION;
+    }
+
+    /**
+     * Starts preparing the view which comes in when the top view gets swiped. The adapter
+     * gets notified right away and the view itself is created once the main thread is idle.
+     */
+    private void prepareNextView() {
+        if (mAdapter == null || mModel.size() >= mModel.getItemCount()) return;
+
+        int position = mModel.getNextPosition();
+        if (position == SwipeStackModel.NO_POSITION) return;
+
+        mPreparedPosition = position;
+        if (mAdapter instanceof SwipeStackPreparationListener) {
+            boolean traced = SwipeStackTrace.begin("onPrepareView", position, getChildCount());
+            try {
+                ((SwipeStackPreparationListener) mAdapter).onPrepareView(position);
+            } finally {
+                SwipeStackTrace.end(traced);
+            }
+        }
+        if (!mPrepareIdleHandlerAdded) {
+            mPrepareIdleHandlerAdded = true;
+            Looper.myQueue().addIdleHandler(mPrepareIdleHandler);
+        }
+    }
+
+    private View createCardView(int position, int depth) {
+        View cardView = null;
+        if (mViewPool != null) {
+            cardView = mViewPool.obtain(mAdapter, position);
+        }
+        if (cardView == null) {
+            // Inflates and binds the view of the card.
+            boolean traced = SwipeStackTrace.begin("onCreateView", position, depth);
+            try {
+                cardView = mAdapter.getItem(position).onCreateView(layoutInflater, null, null);
+            } finally {
+                SwipeStackTrace.end(traced);
+            }
+        }
+        cardView.setTag(R.id.new_view, true);
+        cardView.setTag(R.id.item_id, mAdapter.getItemId(position));
 
-            if (!mDisableHwAcceleration) {
-                bottomView.setLayerType(LAYER_TYPE_HARDWARE, null);
+        if (!mDisableHwAcceleration) {
+            cardView.setLayerType(LAYER_TYPE_HARDWARE, null);
+        }
+
+        if (mViewRotation > 0) {
+            cardView.setRotation(mRandom.nextInt(mViewRotation) - (mViewRotation / 2));
+        }
+
+        if (cardView.getLayoutParams() == null) {
+            cardView.setLayoutParams(new LayoutParams(
+                    FrameLayout.LayoutParams.WRAP_CONTENT,
+                    FrameLayout.LayoutParams.WRAP_CONTENT));
+        }
+        return cardView;
+    }
+
+    /**
+     * Keeps the current views and lets the stack continue after the item of its bottom
+     * view, wherever that item is in the changed data set.
+     */
+    private void onDataSetChanged() {
+        if (mAdapter == null) return;
+        discardPreparedView();
+
+        int count = mAdapter.getCount();
+        mNumberOfStackedViews = Math.min(mDefaultNumberOfStackedViews, count);
+
+        if (mAdapter instanceof SwipeStackSnapshotAdapter) {
+            updateViewsForSnapshot((SwipeStackSnapshotAdapter) mAdapter);
+        }
+
+        mModel.setItemCount(count);
+        for (int x = getChildCount() - 1; x >= 0; x--) {
+            int depth = getChildCount() - 1 - x;
+            if (mModel.getPosition(depth) >= count) {
+                removeChildAt(x, depth);
             }
+        }
+
+        mModel.setCapacity(mNumberOfStackedViews);
+        while (getChildCount() > mModel.size()) {
+            removeChildAt(0, getChildCount() - 1);
+        }
+    }
 
-            if (mViewRotation > 0) {
-                bottomView.setRotation(mRandom.nextInt(mViewRotation) - (mViewRotation / 2));
+    /**
+     * Rebuilds the stack from the new position of its first item which is still in the deck.
+     * Views of unchanged items move to the slot of their new position, all other slots get
+     * new views, so reordered and inserted items show up in the stack as well.
+     */
+    private void updateViewsForSnapshot(SwipeStackSnapshotAdapter adapter) {
+        int childCount = getChildCount();
+        if (childCount == 0) return;
+        SwipeStackSnapshotAdapter.Diff diff = adapter.getLastDiff();
+
+        View[] oldViews = new View[childCount];
+        int[] oldPositions = new int[childCount];
+        SparseArray<View> keptViews = new SparseArray<>();
+        int topPosition = SwipeStackModel.NO_POSITION;
+        for (int depth = 0; depth < childCount; depth++) {
+            View childView = getChildAt(childCount - 1 - depth);
+            long itemId = (long) childView.getTag(R.id.item_id);
+            int position = mModel.getPosition(depth);
+            oldViews[depth] = childView;
+            oldPositions[depth] = position;
+
+            if (itemId != SwipeStackSnapshotAdapter.NO_ID) {
+                position = adapter.getPositionForItemId(itemId, position);
+            } else if (position >= adapter.getCount()) {
+                position = SwipeStackModel.NO_POSITION;
             }
+            if (position < 0) continue;
+
+            if (topPosition == SwipeStackModel.NO_POSITION) topPosition = position;
+            if (diff == null || !diff.isChanged(itemId)) keptViews.put(position, childView);
+        }
 
-            LayoutParams params = bottomView.getLayoutParams();
-            if (params == null) {
-                params = new LayoutParams(
-                        FrameLayout.LayoutParams.WRAP_CONTENT,
-                        FrameLayout.LayoutParams.WRAP_CONTENT);
+        mModel.setItemCount(adapter.getCount());
+        mModel.rebase(topPosition != SwipeStackModel.NO_POSITION ? topPosition : oldPositions[0]);
+
+        // Detaching instead of removing keeps an ongoing drag of the top view alive.
+        detachAllViewsFromParent();
+        for (int depth = mModel.size() - 1; depth >= 0; depth--) {
+            int position = mModel.getPosition(depth);
+            View cardView = keptViews.get(position);
+            if (cardView != null && mDragging && cardView == mTopView && depth != 0) {
+                // The dragged view can't move down the stack under the finger.
+                cardView = null;
+            }
+            if (cardView != null) {
+                keptViews.remove(position);
+                attachViewToParent(cardView, -1, cardView.getLayoutParams());
+                continue;
             }
 
-            addViewInLayout(bottomView, 0, params, true);
+            cardView = createCardView(position, depth);
+            if (depth < childCount) {
+                // Take over the place of the view which held this slot.
+                View previousView = oldViews[depth];
+                cardView.setTag(R.id.new_view, false);
+                cardView.setY(previousView.getY());
+                cardView.setScaleX(previousView.getScaleX());
+                cardView.setScaleY(previousView.getScaleY());
+                cardView.setAlpha(previousView.getAlpha());
+                cardView.setRotation(previousView.getRotation());
+            }
+            addView(cardView, -1);
+        }
+
+        for (int depth = 0; depth < childCount; depth++) {
+            View childView = oldViews[depth];
+            if (indexOfChild(childView) < 0) {
+                releaseChild(childView);
+                notifyViewReleased(oldPositions[depth], childView);
+                removeDetachedView(childView, false);
+            }
+        }
+
+        mNeedsReorder = true;
+        requestLayout();
+        invalidate();
+    }
+
+    private void removeChildAt(int index, int depth) {
+        View childView = getChildAt(index);
+        releaseChild(childView);
+        notifyViewReleased(mModel.getPosition(depth), childView);
+        removeViewAt(index);
+        mModel.remove(depth);
+        mNeedsReorder = true;
+    }
+
+    /**
+     * Releases all views on the stack before they get removed.
+     */
+    private void releaseChildren() {
+        for (int x = getChildCount() - 1; x >= 0; x--) {
+            View childView = getChildAt(x);
+            releaseChild(childView);
+            notifyViewReleased(mModel.getPosition(getChildCount() - 1 - x), childView);
+        }
+    }
 
-            ++mCurrentViewIndex;
-            mCurrentViewIndex %= mAdapter.getCount();
+    private void releaseChild(View childView) {
+        childView.animate().cancel();
+        childView.setTag(R.id.stack_transition, null);
+        if (childView == mTopView) {
+            mSwipeHelper.unregisterObservedView();
+            mTopView = null;
+            // The helper won't report the end of a drag of a view it no longer observes.
+            mDragging = false;
         }
     }
 
@@ -222,23 +611,30 @@ public class SwipeStack extends ViewGroup {
     }
 
     private void reorderItems() {
-        for (int x = 0; x < getChildCount(); x++) {
+        cancelPromotion();
+        cancelRestack();
+        boolean promoted = mAppliedPromotion == 1f;
+        mAppliedPromotion = 0;
+        boolean restack = false;
+
+        int childCount = getChildCount();
+        for (int x = 0; x < childCount; x++) {
             View childView = getChildAt(x);
-            int topViewIndex = getChildCount() - 1;
-            float alpha = 0;
-
-            if (x == topViewIndex) {
-                setDimensions(childView, 1f);
-                alpha = 1;
-            } else {
-                float weight = 1 - 0.1f * (getChildCount() - x - 1);
-                setDimensions(childView, weight);
-                alpha = .7f;
+            int topViewIndex = childCount - 1;
+            int previousWidth = childView.getMeasuredWidth();
+
+            boolean traced = SwipeStackTrace.begin("setDimensions",
+                    mModel.getPosition(topViewIndex - x), topViewIndex - x);
+            try {
+                setDimensions(childView, getStackedWeight(x, childCount));
+            } finally {
+                SwipeStackTrace.end(traced);
             }
 
-            int distanceToViewAbove = (topViewIndex * mViewSpacing) + (x * mViewSpacing);
+            float alpha = getStackedAlpha(x, childCount);
+
             int newPositionX = (getWidth() - childView.getMeasuredWidth()) / 2;
-            int newPositionY = distanceToViewAbove + getPaddingTop();
+            int newPositionY = getStackedPositionY(x, childCount);
 
             childView.layout(
                     newPositionX,
@@ -247,19 +643,21 @@ public class SwipeStack extends ViewGroup {
                     getPaddingTop() + childView.getMeasuredHeight());
 
             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                childView.setTranslationZ(x);
+                childView.setTranslationZ(mStackShadow == null ? x : 0);
             }
 
             boolean isNewView = (boolean) childView.getTag(R.id.new_view);
-            float scaleFactor = (float) Math.pow(mScaleFactor, getChildCount() - x);
+            float scaleFactor = getStackedScale(x, childCount);
 
+            boolean snapsBack = false;
             if (x == topViewIndex) {
+                snapsBack = childView == mTopView && childView.getX() != newPositionX;
                 mSwipeHelper.unregisterObservedView();
                 mTopView = childView;
                 mSwipeHelper.registerObservedView(mTopView, newPositionX, newPositionY);
             }
 
-            if (!mIsFirstLayout) {
+            if (!mIsFirstLayout && (isNewView || !promoted)) {
 
                 if (isNewView) {
                     childView.setTag(R.id.new_view, false);
@@ -267,16 +665,28 @@ public class SwipeStack extends ViewGroup {
                     childView.setY(newPositionY);
                     childView.setScaleY(scaleFactor);
                     childView.setScaleX(scaleFactor);
+                } else if (previousWidth > 0 && previousWidth != childView.getMeasuredWidth()) {
+                    // Keep the visible size while the view gets its new measurement.
+                    float scale = childView.getScaleX() * previousWidth / childView.getMeasuredWidth();
+                    childView.setScaleX(scale);
+                    childView.setScaleY(scale);
                 }
 
-                childView.animate()
-                        .y(newPositionY)
-                        .scaleX(scaleFactor)
-                        .scaleY(scaleFactor)
-                        .alpha(alpha)
-                        .setDuration(mAnimationDuration);
+                if (snapsBack) {
+                    // The restack takes over everything but the horizontal snap-back.
+                    mSwipeHelper.resetHorizontalPosition();
+                }
+
+                // Start from wherever the view is, so an interrupted restack continues smoothly.
+                childView.setTag(R.id.stack_transition, new StackTransition(
+                        childView.getY(), newPositionY,
+                        childView.getScaleX(), scaleFactor,
+                        childView.getAlpha(), alpha));
+                restack = true;
 
             } else {
+                // Views promoted by the drag already sit on their new slot.
+                childView.setTag(R.id.stack_transition, null);
                 childView.setTag(R.id.new_view, false);
                 childView.setY(newPositionY);
                 childView.setScaleY(scaleFactor);
@@ -284,16 +694,230 @@ public class SwipeStack extends ViewGroup {
                 childView.setAlpha(alpha);
             }
         }
+
+        if (restack) {
+            startRestack();
+        }
+    }
+
+    /**
+     * Moves all views of the stack towards their new slot with a single animator.
+     */
+    private void startRestack() {
+        mRestackFraction = 0;
+        mRestackAnimator = ValueAnimator.ofFloat(0, 1);
+        mRestackAnimator.setDuration(mAnimationDuration);
+        mRestackAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator animation) {
+                applyRestack(animation.getAnimatedFraction());
+            }
+        });
+        mRestackAnimator.start();
+        setStackInMotion(mAnimationDuration);
+    }
+
+    private void applyRestack(float fraction) {
+        mRestackFraction = fraction;
+        applyStack();
+    }
+
+    /**
+     * Puts every view where the running restack and the drag promotion want it. Both
+     * animations only update their fraction and call this, so they never fight over a view:
+     * the promotion is added on top of the slot a view is restacked to.
+     */
+    private void applyStack() {
+        int childCount = getChildCount();
+        for (int x = 0; x < childCount; x++) {
+            View childView = getChildAt(x);
+            StackTransition transition = (StackTransition) childView.getTag(R.id.stack_transition);
+            boolean isTopView = x == childCount - 1;
+
+            if (isTopView) {
+                // The finger owns the position of the dragged view.
+                if (transition != null) {
+                    transition.apply(childView, mRestackFraction, !mDragging);
+                }
+                continue;
+            }
+
+            float fromY = getStackedPositionY(x, childCount);
+            float toY = getStackedPositionY(x + 1, childCount);
+            float fromScale = getStackedScale(x, childCount);
+            // The promoted view gets re-measured with a bigger weight once it is restacked,
+            // so scale it up to that size while it still has its current measurement.
+            float toScale = getStackedScale(x + 1, childCount)
+                    * getStackedWeight(x + 1, childCount) / getStackedWeight(x, childCount);
+            float fromAlpha = getStackedAlpha(x, childCount);
+            float toAlpha = getStackedAlpha(x + 1, childCount);
+
+            float y = fromY;
+            float scale = fromScale;
+            float alpha = fromAlpha;
+            if (transition != null) {
+                y = transition.getY(mRestackFraction);
+                scale = transition.getScale(mRestackFraction);
+                alpha = transition.getAlpha(mRestackFraction);
+            }
+
+            scale += (toScale - fromScale) * mAppliedPromotion;
+            childView.setY(y + (toY - fromY) * mAppliedPromotion);
+            childView.setScaleX(scale);
+            childView.setScaleY(scale);
+            childView.setAlpha(alpha + (toAlpha - fromAlpha) * mAppliedPromotion);
+        }
+    }
+
+    /**
+     * Stops the running restack. The views keep their current values and a following
+     * restack continues from there.
+     */
+    private void cancelRestack() {
+        if (mRestackAnimator != null) {
+            mRestackAnimator.cancel();
+            mRestackAnimator = null;
+        }
+        mRestackFraction = 1f;
+    }
+
+    private float getStackedWeight(int index, int count) {
+        return StackGeometry.getWeight(index, count);
+    }
+
+    private float getStackedAlpha(int index, int count) {
+        return StackGeometry.getAlpha(index, count);
+    }
+
+    private float getStackedScale(int index, int count) {
+        return StackGeometry.getScale(mScaleFactor, index, count);
+    }
+
+    private int getStackedPositionY(int index, int count) {
+        return StackGeometry.getOffsetY(mViewSpacing, index, count) + getPaddingTop();
+    }
+
+    /**
+     * Moves every view below the top view towards the slot above it.
+     *
+     * @param fraction 0 leaves the views on their own slot, 1 puts them on the promoted slot.
+     */
+    private void applyPromotion(float fraction) {
+        if (fraction == mAppliedPromotion) return;
+        mAppliedPromotion = fraction;
+        applyStack();
+    }
+
+    private void schedulePromotion(float fraction) {
+        mPendingPromotion = fraction;
+        if (!mPromotionFrameScheduled) {
+            mPromotionFrameScheduled = true;
+            mChoreographer.postFrameCallback(mPromotionFrameCallback);
+        }
+    }
+
+    private void animatePromotion(float fraction, int duration) {
+        cancelPromotion();
+        mPromotionAnimator = ValueAnimator.ofFloat(mAppliedPromotion, fraction);
+        mPromotionAnimator.setDuration(duration);
+        mPromotionAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+            @Override
+            public void onAnimationUpdate(ValueAnimator animation) {
+                applyPromotion((float) animation.getAnimatedValue());
+            }
+        });
+        mPromotionAnimator.start();
+    }
+
+    private void cancelPromotion() {
+        if (mPromotionFrameScheduled) {
+            mChoreographer.removeFrameCallback(mPromotionFrameCallback);
+            mPromotionFrameScheduled = false;
+        }
+        if (mPromotionAnimator != null) {
+            mPromotionAnimator.cancel();
+            mPromotionAnimator = null;
+        }
     }
 
     private void removeTopView() {
-        if (mTopView != null) {
-            removeView(mTopView);
-            mTopView = null;
+        boolean traced = SwipeStackTrace.begin("removeTopView", getCurrentPosition(), 0);
+        try {
+            if (mTopView != null) {
+                removeView(mTopView);
+                mTopView = null;
+                mModel.advance();
+                // The remaining views need a new top view even if no view gets added.
+                mNeedsReorder = true;
+            }
+        } finally {
+            SwipeStackTrace.end(traced);
         }
+    }
 
-        if (getChildCount() == 0) {
-            if (mListener != null) mListener.onStackEmpty();
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        super.dispatchDraw(canvas);
+        if (mStackShadow != null && mStackInMotion) {
+            // The shadows are drawn by this view, so follow the moving children every frame.
+            postInvalidateOnAnimation();
+        }
+    }
+
+    @Override
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        boolean clip = mClipStackedViews && !mStackInMotion;
+        if (!clip && mStackShadow == null) {
+            return super.drawChild(canvas, child, drawingTime);
+        }
+
+        int saveCount = canvas.save();
+        if (clip) {
+            for (int x = indexOfChild(child) + 1; x < getChildCount(); x++) {
+                View viewAbove = getChildAt(x);
+                if (viewAbove.getVisibility() != VISIBLE || viewAbove.getAlpha() < 1f
+                        || viewAbove.getRotation() != 0) {
+                    continue;
+                }
+                getVisibleBounds(viewAbove, mClipRect);
+                canvas.clipRect(mClipRect, Region.Op.DIFFERENCE);
+            }
+        }
+        if (mStackShadow != null && child.getVisibility() == VISIBLE) {
+            mStackShadow.draw(canvas, child);
+        }
+        boolean more = super.drawChild(canvas, child, drawingTime);
+        canvas.restoreToCount(saveCount);
+        return more;
+    }
+
+    private void getVisibleBounds(View view, RectF bounds) {
+        float pivotX = view.getLeft() + view.getTranslationX() + view.getPivotX();
+        float pivotY = view.getTop() + view.getTranslationY() + view.getPivotY();
+        bounds.set(
+                pivotX - view.getPivotX() * view.getScaleX(),
+                pivotY - view.getPivotY() * view.getScaleY(),
+                pivotX + (view.getWidth() - view.getPivotX()) * view.getScaleX(),
+                pivotY + (view.getHeight() - view.getPivotY()) * view.getScaleY());
+    }
+
+    /**
+     * Draws every view in full until the current motion is over. The clip regions and
+     * shadows are computed while the stack is drawn, so they would lag behind views moved
+     * by property animations.
+     *
+     * @param duration The duration of the motion, or -1 if it ends with another call.
+     */
+    private void setStackInMotion(int duration) {
+        if (!mClipStackedViews && mStackShadow == null) return;
+
+        if (!mStackInMotion) {
+            mStackInMotion = true;
+            invalidate();
+        }
+        removeCallbacks(mStackSettledRunnable);
+        if (duration >= 0) {
+            postDelayed(mStackSettledRunnable, duration);
         }
     }
 
@@ -305,54 +929,191 @@ public class SwipeStack extends ViewGroup {
     }
 
     public void onSwipeStart() {
-        if (mProgressListener != null) mProgressListener.onSwipeStart(getCurrentPosition());
+        // A running restack keeps going; the drag promotion is added on top of it.
+        cancelPromotion();
+        mDragging = true;
+        setStackInMotion(-1);
+        mLastSwipeProgress = 0;
+        mLastSwipeProgressTime = 0;
+        if (mProgressListener != null) {
+            boolean traced = SwipeStackTrace.begin("onSwipeStart", getCurrentPosition(), 0);
+            try {
+                mProgressListener.onSwipeStart(getCurrentPosition());
+            } finally {
+                SwipeStackTrace.end(traced);
+            }
+        }
     }
 
     public void onSwipeProgress(float progress) {
-        if (mProgressListener != null)
-            mProgressListener.onSwipeProgress(getCurrentPosition(), progress);
-        for (int x = 0; x < getChildCount(); x++) {
-            getChildAt(x).setAlpha(1f);
+        if (mProgressListener != null) {
+            boolean traced = SwipeStackTrace.begin("onSwipeProgress", getCurrentPosition(), 0);
+            try {
+                mProgressListener.onSwipeProgress(getCurrentPosition(), progress);
+            } finally {
+                SwipeStackTrace.end(traced);
+            }
+        }
+        schedulePromotion(Math.min(Math.abs(progress), 1f));
+        updateNextViewPreparation(progress);
+    }
+
+    /**
+     * Prepares the next view once the drag is far or fast enough. A prepared view is kept when
+     * the top view snaps back, as it is still the next one to come in.
+     */
+    private void updateNextViewPreparation(float progress) {
+        long time = SystemClock.uptimeMillis();
+        float velocity = 0;
+        if (mLastSwipeProgressTime > 0 && time > mLastSwipeProgressTime) {
+            velocity = Math.abs(progress - mLastSwipeProgress) * 1000
+                    / (time - mLastSwipeProgressTime);
+        }
+        mLastSwipeProgress = progress;
+        mLastSwipeProgressTime = time;
+
+        if (!mPrepareNextView || mPreparedPosition != SwipeStackModel.NO_POSITION) return;
+        if (Math.abs(progress) >= mPrepareThreshold || velocity >= mPrepareVelocity) {
+            prepareNextView();
         }
     }
 
     public void onSwipeEnd() {
-        if (mProgressListener != null) mProgressListener.onSwipeEnd(getCurrentPosition());
-        for (int x = 0; x < getChildCount(); x++) {
-            View childView = getChildAt(x);
-            int topViewIndex = getChildCount() - 1;
-            float alpha = 0;
-            if (x == topViewIndex) {
-                alpha = 1;
-            } else {
-                float weight = 1 - 0.1f * (getChildCount() - x - 1);
-                setDimensions(childView, weight);
-                alpha = .7f;
+        if (mProgressListener != null) {
+            boolean traced = SwipeStackTrace.begin("onSwipeEnd", getCurrentPosition(), 0);
+            try {
+                mProgressListener.onSwipeEnd(getCurrentPosition());
+            } finally {
+                SwipeStackTrace.end(traced);
             }
-            childView.setAlpha(alpha);
         }
+        mDragging = false;
+        if (mNeedsReorder) {
+            // Restack what changed during the drag, starting from where the views are.
+            requestLayout();
+        } else {
+            animatePromotion(0, mAnimationDuration);
+        }
+        setStackInMotion(mAnimationDuration);
     }
 
-    public void onViewSwipedToLeft() {
-        if (mListener != null) mListener.onViewSwipedToLeft(getCurrentPosition());
-        int position = mCurrentViewIndex - getChildCount();
-        if (position < 0) {
-            position += mAdapter.getCount();
+    void onSwipeDismiss(View view, int duration) {
+        mDragging = false;
+        view.setTag(R.id.swiped_position, getCurrentPosition());
+        setStackInMotion(Math.max(duration, mAnimationDuration));
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2 && view == mTopView) {
+            // Let the view finish its exit animation in the overlay while the stack restacks.
+            getOverlay().add(view);
+            mTopView = null;
+            mModel.advance();
+            mNeedsReorder = true;
+            requestLayout();
+        } else {
+            animatePromotion(1f, duration);
         }
-        position = (position + 1) % mAdapter.getCount();
-        removeTopView();
-        if (mIndexListener != null) mIndexListener.onViewSwipedTo(position);
+    }
+
+    public void onViewSwipedToLeft() {
+        onViewSwiped(mTopView, true);
     }
 
     void onViewSwipedToRight() {
-        if (mListener != null) mListener.onViewSwipedToRight(getCurrentPosition());
-        int position = mCurrentViewIndex - getChildCount();
-        if (position < 0) {
-            position += mAdapter.getCount();
+        onViewSwiped(mTopView, false);
+    }
+
+    void onViewSwiped(View view, boolean toLeft) {
+        if (view == null) return;
+
+        Object swipedPosition = view.getTag(R.id.swiped_position);
+        int position = swipedPosition != null ? (int) swipedPosition : getCurrentPosition();
+        view.setTag(R.id.swiped_position, position);
+
+        if (mListener != null) {
+            boolean traced = SwipeStackTrace.begin(
+                    toLeft ? "onViewSwipedToLeft" : "onViewSwipedToRight", position, 0);
+            try {
+                if (toLeft) {
+                    mListener.onViewSwipedToLeft(position);
+                } else {
+                    mListener.onViewSwipedToRight(position);
+                }
+            } finally {
+                SwipeStackTrace.end(traced);
+            }
+        }
+
+        if (view == mTopView) {
+            removeTopView();
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            getOverlay().remove(view);
+        }
+
+        // Views added during the exit animation mean the stack isn't empty anymore.
+        if (getChildCount() == 0 && mListener != null) {
+            // Tagged with the last card, as the empty stack has no position of its own.
+            boolean traced = SwipeStackTrace.begin("onStackEmpty", position, 0);
+            try {
+                mListener.onStackEmpty();
+            } finally {
+                SwipeStackTrace.end(traced);
+            }
+        }
+
+        int nextPosition = mModel.getPositionAfter(position);
+        if (mIndexListener != null && nextPosition != SwipeStackModel.NO_POSITION) {
+            boolean traced = SwipeStackTrace.begin("onViewSwipedTo", nextPosition, 0);
+            try {
+                mIndexListener.onViewSwipedTo(nextPosition);
+            } finally {
+                SwipeStackTrace.end(traced);
+            }
+        }
+
+        mSwipedViews.addLast(view);
+        while (mSwipedViews.size() > mRetainedSwipedViews) {
+            releaseSwipedView(mSwipedViews.removeFirst());
+        }
+    }
+
+    /**
+     * Hands a swiped view back to the adapter, after which the stack no longer references it.
+     */
+    private void releaseSwipedView(View view) {
+        Object swipedPosition = view.getTag(R.id.swiped_position);
+        view.setTag(R.id.swiped_position, null);
+        view.setTag(R.id.stack_transition, null);
+        if (swipedPosition != null) {
+            notifyViewReleased((int) swipedPosition, view);
+        }
+    }
+
+    private void notifyViewReleased(int position, View view) {
+        if (mAdapter instanceof SwipeStackReleaseListener) {
+            int index = indexOfChild(view);
+            int depth = index >= 0 ? getChildCount() - 1 - index : -1;
+            boolean traced = SwipeStackTrace.begin("onViewReleased", position, depth);
+            try {
+                ((SwipeStackReleaseListener) mAdapter).onViewReleased(position, view);
+            } finally {
+                SwipeStackTrace.end(traced);
+            }
+        }
+    }
+
+    private void releaseSwipedViews() {
+        while (!mSwipedViews.isEmpty()) {
+            releaseSwipedView(mSwipedViews.removeFirst());
         }
-        position = (position + 1) % mAdapter.getCount();
-        removeTopView();
-        if (mIndexListener != null) mIndexListener.onViewSwipedTo(position);
+    }
+
+    /**
+     * Returns the most recently swiped views which are not released yet, oldest first.
+     *
+     * @return The retained swiped views.
+     */
+    public List<View> getSwipedViews() {
+        return new ArrayList<>(mSwipedViews);
     }
 
     /**
@@ -361,7 +1122,16 @@ public class SwipeStack extends ViewGroup {
      * @return The current position.
      */
     public int getCurrentPosition() {
-        return mCurrentViewIndex - getChildCount();
+        return mModel.getTopPosition();
+    }
+
+    /**
+     * Returns the model which keeps track of the adapter positions shown by the stack.
+     *
+     * @return The model.
+     */
+    public SwipeStackModel getModel() {
+        return mModel;
     }
 
     /**
@@ -381,18 +1151,106 @@ public class SwipeStack extends ViewGroup {
      * @see #getAdapter()
      */
     public void setAdapter(FragmentPagerAdapter adapter, LayoutInflater layoutInflater) {
-        if (mAdapter != null) mAdapter.unregisterDataSetObserver(mDataObserver);
+        releaseSwipedViews();
+        discardPreparedView();
+        if (mAdapter != null) {
+            releaseChildren();
+            mAdapter.unregisterDataSetObserver(mDataObserver);
+            if (mViewPool != null) mViewPool.clear(mAdapter);
+        }
         mAdapter = adapter;
         mAdapter.registerDataSetObserver(mDataObserver);
         mNumberOfStackedViews = Math.min(mDefaultNumberOfStackedViews, mAdapter.getCount());
         this.layoutInflater = layoutInflater;
         zeroIndexViewNotified = false;
-        if (mIndexListener != null && mAdapter.getCount() > 0) {
-            mIndexListener.onViewSwipedTo(0);
-            zeroIndexViewNotified = true;
-        }
         removeAllViews();
-        mCurrentViewIndex = 0;
+        mModel.setItemCount(mAdapter.getCount());
+        mModel.setCapacity(mNumberOfStackedViews);
+        mModel.reset(takeRetainedTopPosition());
+        notifyTopPosition();
+    }
+
+    /**
+     * Tells the index listener which position the stack starts with.
+     */
+    private void notifyTopPosition() {
+        if (mIndexListener == null || mAdapter == null || mAdapter.getCount() == 0) return;
+        int topPosition = mModel.getTopPosition();
+        boolean traced = SwipeStackTrace.begin("onViewSwipedTo", topPosition, 0);
+        try {
+            mIndexListener.onViewSwipedTo(topPosition);
+        } finally {
+            SwipeStackTrace.end(traced);
+        }
+        zeroIndexViewNotified = true;
+    }
+
+    /**
+     * Returns the top position saved by the stack this one replaces. The position is only
+     * applied once, so a later adapter starts at its first item.
+     */
+    private int takeRetainedTopPosition() {
+        if (mRetainedPositionTaken || mRetainedCache == null || mAdapter == null) {
+            return 0;
+        }
+        mRetainedPositionTaken = true;
+        if (!mRetainedCache.hasTopPosition()) return 0;
+
+        int position = mRetainedCache.getTopPosition();
+        mRetainedCache.clearTopPosition();
+        return position < mAdapter.getCount() ? position : 0;
+    }
+
+    /**
+     * Sets a cache which survives configuration changes. The stack stores the position of
+     * its top view in the cache and continues from there after being re-created; the cards
+     * can keep their bound data and decoded bitmaps in it.
+     *
+     * @param retainedCache The cache, usually from
+     *                      {@link SwipeStackRetainedCache#get(android.support.v4.app.FragmentManager, String)}.
+     */
+    public void setRetainedCache(@Nullable SwipeStackRetainedCache retainedCache) {
+        mRetainedCache = retainedCache;
+        if (getChildCount() == 0) {
+            discardPreparedView();
+            int topPosition = mModel.getTopPosition();
+            mModel.reset(takeRetainedTopPosition());
+            if (zeroIndexViewNotified && mModel.getTopPosition() != topPosition) {
+                notifyTopPosition();
+            }
+        }
+    }
+
+    /**
+     * Returns the cache which survives configuration changes.
+     *
+     * @return The cache or null if none is set.
+     */
+    public SwipeStackRetainedCache getRetainedCache() {
+        return mRetainedCache;
+    }
+
+    /**
+     * Sets a pool which provides views created ahead of time. The same pool can be shared
+     * by several SwipeStacks.
+     *
+     * @param viewPool The pool to take views from, or null to always create new views.
+     * @see SwipeStackViewPool#prewarm(FragmentPagerAdapter, LayoutInflater, int)
+     */
+    public void setViewPool(@Nullable SwipeStackViewPool viewPool) {
+        if (mViewPool != null && mViewPool != viewPool && mAdapter != null) {
+            mViewPool.clear(mAdapter);
+        }
+        mViewPool = viewPool;
+    }
+
+    /**
+     * Returns the pool this SwipeStack takes its views from.
+     *
+     * @return The pool or null if none is set.
+     */
+    public SwipeStackViewPool getViewPool() {
+        return mViewPool;
     }
 
     /**
@@ -426,9 +1284,8 @@ public class SwipeStack extends ViewGroup {
 
     public void setIndexListener(@Nullable SwipeStackIndexListener listener) {
         mIndexListener = listener;
-        if (mIndexListener != null && !zeroIndexViewNotified && mAdapter != null && mAdapter.getCount() > 0) {
-            mIndexListener.onViewSwipedTo(0);
-            zeroIndexViewNotified = true;
+        if (!zeroIndexViewNotified) {
+            notifyTopPosition();
         }
     }
 
@@ -467,19 +1324,240 @@ public class SwipeStack extends ViewGroup {
         mSwipeHelper.swipeViewToLeft();
     }
 
+    /**
+     * Sets whether the stack gets populated one view per frame. The top view is shown in the
+     * first frame and the views below it are added during the following frames.
+     *
+     * @param stagedPopulation True to populate the stack over several frames.
+     */
+    public void setStagedPopulation(boolean stagedPopulation) {
+        mStagedPopulation = stagedPopulation;
+    }
+
+    /**
+     * Sets whether views below the top view only draw the parts which are not covered by
+     * the views above them. Only use this with opaque views; all views are drawn in full
+     * while the stack is in motion.
+     *
+     * @param clipStackedViews True to skip drawing the covered parts of stacked views.
+     */
+    public void setClipStackedViews(boolean clipStackedViews) {
+        mClipStackedViews = clipStackedViews;
+        invalidate();
+    }
+
+    private StackShadow createBakedShadow() {
+        return new StackShadow(
+                getResources().getDimensionPixelSize(R.dimen.default_shadow_radius),
+                getResources().getDimensionPixelSize(R.dimen.default_shadow_corner_radius));
+    }
+
+    /**
+     * Sets whether the stack draws a pre-rendered shadow behind every view instead of
+     * giving the views an elevation. The shadows of the views themselves, e.g. the
+     * elevation of a CardView, are not affected.
+     *
+     * @param bakedShadows True to draw pre-rendered shadows.
+     */
+    public void setBakedShadows(boolean bakedShadows) {
+        mStackShadow = bakedShadows ? createBakedShadow() : null;
+        updateStackElevation();
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * Sets a drawable, usually a nine-patch, which the stack draws behind every view
+     * instead of giving the views an elevation. The drawable's padding is drawn around
+     * the view.
+     *
+     * @param shadowDrawable The shadow drawable, or null to use elevation again.
+     */
+    public void setShadowDrawable(@Nullable Drawable shadowDrawable) {
+        mStackShadow = shadowDrawable != null ? new StackShadow(shadowDrawable) : null;
+        updateStackElevation();
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * Gives the views an elevation unless the stack draws their shadows itself.
+     */
+    private void updateStackElevation() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) return;
+
+        for (int x = 0; x < getChildCount(); x++) {
+            getChildAt(x).setTranslationZ(mStackShadow == null ? x : 0);
+        }
+    }
+
+    /**
+     * Sets whether the dragged view is moved to where the finger is expected at the next
+     * frame instead of where it was at the last touch event. This hides some of the touch
+     * latency on devices with a slow touch sampling rate.
+     *
+     * @param touchPrediction True to predict the finger position.
+     */
+    public void setTouchPrediction(boolean touchPrediction) {
+        mTouchPrediction = touchPrediction;
+        if (!touchPrediction) {
+            mSwipeHelper.setMotionPredictor(null);
+            return;
+        }
+
+        MotionPredictor motionPredictor = new MotionPredictor(
+                getResources().getDimension(R.dimen.default_max_prediction_distance));
+        WindowManager windowManager =
+                (WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE);
+        float refreshRate = windowManager.getDefaultDisplay().getRefreshRate();
+        if (refreshRate > 0) {
+            motionPredictor.setHorizon(Math.round(1000 / refreshRate));
+        }
+        mSwipeHelper.setMotionPredictor(motionPredictor);
+    }
+
+    /**
+     * Sets whether the stack starts over with the first item after the last one was
+     * swiped. Otherwise the stack runs empty at the end of the adapter.
+     *
+     * @param circular True to show the items over and over again.
+     */
+    public void setCircular(boolean circular) {
+        mCircular = circular;
+        mModel.setCircular(circular);
+        discardPreparedView();
+        requestLayout();
+    }
+
+    /**
+     * Sets how many swiped views the stack keeps before handing them back to the adapter.
+     * Adapters implementing {@link SwipeStackReleaseListener} get notified once a swiped
+     * view is released.
+     *
+     * @param count The number of swiped views to keep, 0 releases them right away.
+     */
+    public void setRetainedSwipedViews(int count) {
+        mRetainedSwipedViews = Math.max(count, 0);
+        while (mSwipedViews.size() > mRetainedSwipedViews) {
+            releaseSwipedView(mSwipedViews.removeFirst());
+        }
+    }
+
+    /**
+     * Sets whether the stack prepares the view which comes in next while the top view is
+     * dragged. Adapters implementing {@link SwipeStackPreparationListener} get notified, so
+     * they can start decoding images or fetching data for that card as well.
+     *
+     * @param prepareNextView True to prepare the next view.
+     */
+    public void setPrepareNextView(boolean prepareNextView) {
+        mPrepareNextView = prepareNextView;
+        if (!prepareNextView) {
+            discardPreparedView();
+        }
+    }
+
+    /**
+     * Sets how far or how fast the top view has to be dragged before the next view gets
+     * prepared.
+     *
+     * @param progressThreshold The drag progress, from 0 to 1.
+     * @param velocityThreshold The drag velocity in stack widths per second.
+     */
+    public void setPrepareThresholds(float progressThreshold, float velocityThreshold) {
+        mPrepareThreshold = progressThreshold;
+        mPrepareVelocity = velocityThreshold;
+    }
+
     /**
      * Resets the current adapter position and repopulates the stack.
      */
     public void resetStack() {
-        mCurrentViewIndex = 0;
+        releaseSwipedViews();
+        discardPreparedView();
+        releaseChildren();
+        mModel.reset(0);
         removeAllViewsInLayout();
         requestLayout();
     }
 
+    /**
+     * Implement this interface in your adapter to drop the references to the views of
+     * cards, e.g. the fragments which created them, once the stack releases them.
+     */
+    public interface SwipeStackReleaseListener {
+        /**
+         * Called when the stack no longer uses the view of a card, because it was swiped or
+         * removed, e.g. by a data set change or a reset of the stack.
+         *
+         * @param position The adapter position the view was created for.
+         * @param view     The released view.
+         */
+        void onViewReleased(int position, View view);
+    }
+
+    /**
+     * Implement this interface in your adapter to start the work for a card, e.g. decoding
+     * its images, before its view is needed.
+     */
+    public interface SwipeStackPreparationListener {
+        /**
+         * Called when the drag of the top view makes the card at this position likely to
+         * come in next.
+         *
+         * @param position The position of the card in the currently set adapter.
+         */
+        void onPrepareView(int position);
+
+        /**
+         * Called when the card at this position won't come in next after all, e.g. because
+         * the data set has changed.
+         *
+         * @param position The position of the card in the currently set adapter.
+         */
+        void onPreparationCancelled(int position);
+    }
+
     public interface SwipeStackIndexListener {
         void onViewSwipedTo(int position);
     }
 
+    private static class StackTransition {
+        private final float mFromY, mToY;
+        private final float mFromScale, mToScale;
+        private final float mFromAlpha, mToAlpha;
+
+        StackTransition(float fromY, float toY, float fromScale, float toScale,
+                        float fromAlpha, float toAlpha) {
+            mFromY = fromY;
+            mToY = toY;
+            mFromScale = fromScale;
+            mToScale = toScale;
+            mFromAlpha = fromAlpha;
+            mToAlpha = toAlpha;
+        }
+
+        float getY(float fraction) {
+            return mFromY + (mToY - mFromY) * fraction;
+        }
+
+        float getScale(float fraction) {
+            return mFromScale + (mToScale - mFromScale) * fraction;
+        }
+
+        float getAlpha(float fraction) {
+            return mFromAlpha + (mToAlpha - mFromAlpha) * fraction;
+        }
+
+        void apply(View view, float fraction, boolean withY) {
+            float scale = getScale(fraction);
+            if (withY) view.setY(getY(fraction));
+            view.setScaleX(scale);
+            view.setScaleY(scale);
+            view.setAlpha(getAlpha(fraction));
+        }
+    }
+
     /**
      * Interface definition for a callback to be invoked when the top view was
      * swiped to the left / right or when the stack gets empty.
@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2016 Frederik Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package link.fls.swipestack;
+
+import android.support.v4.view.ViewCompat;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.Random;
+
+/**
+ * A {@link RecyclerView.LayoutManager} which lays out the first items of the adapter
+ * the same way {@link SwipeStack} does: adapter position 0 is the top view and the
+ * following positions are stacked below it.
+ * <p>
+ * Use it together with {@link SwipeStackTouchCallback} and remove the swiped item
+ * from the adapter to advance the stack.
+ */
+public class SwipeStackLayoutManager extends RecyclerView.LayoutManager {
+
+    private final Random mRandom = new Random();
+    private int mNumberOfStackedViews = SwipeStack.DEFAULT_STACK_SIZE;
+    private int mViewSpacing;
+    private int mViewRotation = SwipeStack.DEFAULT_STACK_ROTATION;
+    private float mScaleFactor = SwipeStack.DEFAULT_SCALE_FACTOR;
+    private float mSwipeProgress;
+
+    /**
+     * Creates a layout manager.
+     *
+     * @param stackSize   The maximum number of visible views.
+     * @param viewSpacing The vertical distance between two views in pixels.
+     */
+    public SwipeStackLayoutManager(int stackSize, int viewSpacing) {
+        mNumberOfStackedViews = stackSize;
+        mViewSpacing = viewSpacing;
+    }
+
+    @Override
+    public RecyclerView.LayoutParams generateDefaultLayoutParams() {
+        return new RecyclerView.LayoutParams(
+                ViewGroup.LayoutParams.WRAP_CONTENT,
+                ViewGroup.LayoutParams.WRAP_CONTENT);
+    }
+
+    @Override
+    public boolean supportsPredictiveItemAnimations() {
+        return true;
+    }
+
+    @Override
+    public void onLayoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        if (state.getItemCount() == 0) {
+            removeAndRecycleAllViews(recycler);
+            return;
+        }
+
+        int removedViews = 0;
+        if (state.isPreLayout()) {
+            for (int x = 0; x < getChildCount(); x++) {
+                RecyclerView.LayoutParams params =
+                        (RecyclerView.LayoutParams) getChildAt(x).getLayoutParams();
+                if (params.isItemRemoved()) removedViews++;
+            }
+        }
+
+        detachAndScrapAttachedViews(recycler);
+
+        // The cards are laid out with the count they are shown with. In pre-layout, the cards
+        // which appear in place of removed ones go into additional slots below the stack.
+        int stackCount = Math.min(mNumberOfStackedViews, state.getItemCount());
+        int childCount = Math.min(stackCount + removedViews, state.getItemCount());
+        for (int position = childCount - 1; position >= 0; position--) {
+            View childView = recycler.getViewForPosition(position);
+            addView(childView);
+            layoutStackedView(childView, position, stackCount);
+        }
+        mSwipeProgress = 0;
+    }
+
+    private void layoutStackedView(View childView, int position, int childCount) {
+        int index = childCount - 1 - position;
+
+        int width = getWidth() - (getPaddingRight() + getPaddingLeft());
+        int height = getHeight() - (getPaddingTop() + getPaddingBottom());
+        Double widthD = Math.ceil(width * StackGeometry.getWeight(index, childCount));
+        childView.measure(View.MeasureSpec.EXACTLY | widthD.intValue(),
+                View.MeasureSpec.AT_MOST | height);
+
+        int measuredWidth = getDecoratedMeasuredWidth(childView);
+        int left = (getWidth() - measuredWidth) / 2;
+        int top = getPaddingTop() + StackGeometry.getOffsetY(mViewSpacing, index, childCount);
+        layoutDecorated(childView, left, top, left + measuredWidth,
+                top + getDecoratedMeasuredHeight(childView));
+
+        float scale = StackGeometry.getScale(mScaleFactor, index, childCount);
+        childView.setTranslationY(0);
+        childView.setScaleX(scale);
+        childView.setScaleY(scale);
+        childView.setAlpha(StackGeometry.getAlpha(index, childCount));
+        ViewCompat.setTranslationZ(childView, index);
+
+        if (mViewRotation > 0 && childView.getTag(R.id.stack_rotation) == null) {
+            float rotation = mRandom.nextInt(mViewRotation) - (mViewRotation / 2);
+            childView.setTag(R.id.stack_rotation, rotation);
+            childView.setRotation(rotation);
+        }
+    }
+
+    /**
+     * Moves every view below the top view towards the slot above it, the same way
+     * {@link SwipeStack} does while the top view is dragged.
+     *
+     * @param progress The absolute drag progress between 0 and 1.
+     */
+    public void setSwipeProgress(float progress) {
+        float fraction = Math.min(Math.abs(progress), 1f);
+        if (fraction == mSwipeProgress) return;
+        mSwipeProgress = fraction;
+
+        int childCount = getChildCount();
+        for (int x = 0; x < childCount; x++) {
+            View childView = getChildAt(x);
+            int index = childCount - 1 - getPosition(childView);
+            if (index >= childCount - 1 || index < 0) continue;
+
+            float fromScale = StackGeometry.getScale(mScaleFactor, index, childCount);
+            float toScale = StackGeometry.getScale(mScaleFactor, index + 1, childCount)
+                    * StackGeometry.getWeight(index + 1, childCount)
+                    / StackGeometry.getWeight(index, childCount);
+            float fromAlpha = StackGeometry.getAlpha(index, childCount);
+            float toAlpha = StackGeometry.getAlpha(index + 1, childCount);
+
+            float scale = fromScale + (toScale - fromScale) * fraction;
+            childView.setTranslationY(mViewSpacing * fraction);
+            childView.setScaleX(scale);
+            childView.setScaleY(scale);
+            childView.setAlpha(fromAlpha + (toAlpha - fromAlpha) * fraction);
+        }
+    }
+
+    @Override
+    public boolean canScrollHorizontally() {
+        return false;
+    }
+
+    @Override
+    public boolean canScrollVertically() {
+        return false;
+    }
+
+    public int getStackSize() {
+        return mNumberOfStackedViews;
+    }
+
+    public void setStackSize(int stackSize) {
+        mNumberOfStackedViews = stackSize;
+        requestLayout();
+    }
+
+    public void setViewSpacing(int viewSpacing) {
+        mViewSpacing = viewSpacing;
+        requestLayout();
+    }
+
+    public void setViewRotation(int viewRotation) {
+        mViewRotation = viewRotation;
+        requestLayout();
+    }
+
+    public void setScaleFactor(float scaleFactor) {
+        mScaleFactor = scaleFactor;
+        requestLayout();
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright (C) 2016 Frederik Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package link.fls.swipestack;
+
+/**
+ * The state of a deck: which adapter positions occupy the slots of the stack, from the top
+ * slot (depth 0) down to the bottom slot, and which position comes next.
+ * <p>
+ * The slots are kept in a ring buffer, so advancing, rewinding and filling the stack are
+ * O(1). In circular mode the deck starts over after its last item; in finite mode the stack
+ * runs empty. This class has no Android dependencies.
+ */
+public class SwipeStackModel {
+
+    public static final int NO_POSITION = -1;
+
+    private int[] mSlots;
+    private int mHead;
+    private int mSize;
+    private int mCapacity;
+    private int mItemCount;
+    private boolean mCircular;
+    private int mAnchor;
+
+    /**
+     * Creates a model.
+     *
+     * @param capacity The maximum number of slots.
+     * @param circular True if the deck starts over after its last item.
+     */
+    public SwipeStackModel(int capacity, boolean circular) {
+        mSlots = new int[Math.max(capacity, 1)];
+        mCapacity = capacity;
+        mCircular = circular;
+    }
+
+    /**
+     * Empties the stack. The next position to be filled is the given one.
+     *
+     * @param topPosition The adapter position the stack starts with.
+     */
+    public void reset(int topPosition) {
+        mHead = 0;
+        mSize = 0;
+        mAnchor = Math.max(topPosition, 0);
+        if (mAnchor >= mItemCount && mItemCount > 0) mAnchor = 0;
+    }
+
+    public void setItemCount(int itemCount) {
+        if (mAnchor == NO_POSITION && itemCount > mItemCount) {
+            // A finite deck which ran empty continues with the new items.
+            mAnchor = mItemCount;
+        }
+        mItemCount = itemCount;
+        if (mAnchor >= itemCount) mAnchor = 0;
+    }
+
+    public int getItemCount() {
+        return mItemCount;
+    }
+
+    /**
+     * Sets the maximum number of slots. Slots beyond the new capacity are dropped from
+     * the bottom.
+     *
+     * @param capacity The maximum number of slots.
+     */
+    public void setCapacity(int capacity) {
+        if (capacity > mSlots.length) {
+            int[] slots = new int[capacity];
+            for (int depth = 0; depth < mSize; depth++) {
+                slots[depth] = getPosition(depth);
+            }
+            mSlots = slots;
+            mHead = 0;
+        }
+        mCapacity = capacity;
+        mSize = Math.min(mSize, capacity);
+    }
+
+    public int getCapacity() {
+        return mCapacity;
+    }
+
+    public void setCircular(boolean circular) {
+        mCircular = circular;
+    }
+
+    public boolean isCircular() {
+        return mCircular;
+    }
+
+    /**
+     * Returns the number of occupied slots.
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Returns the adapter position of a slot.
+     *
+     * @param depth 0 for the top slot, {@code size() - 1} for the bottom slot.
+     * @return The adapter position.
+     */
+    public int getPosition(int depth) {
+        return mSlots[(mHead + depth) % mSlots.length];
+    }
+
+    /**
+     * Changes the adapter position of a slot, e.g. after the data set changed.
+     */
+    public void setPosition(int depth, int position) {
+        mSlots[(mHead + depth) % mSlots.length] = position;
+    }
+
+    /**
+     * Returns the adapter position of the top slot.
+     *
+     * @return The position, or the position which will be filled next if the stack is
+     * empty, or {@link #NO_POSITION} if there is none.
+     */
+    public int getTopPosition() {
+        return mSize > 0 ? getPosition(0) : getNextPosition();
+    }
+
+    /**
+     * Returns the adapter position which will be filled into the bottom slot next.
+     *
+     * @return The position or {@link #NO_POSITION} if the deck has no more items.
+     */
+    public int getNextPosition() {
+        if (mItemCount == 0) return NO_POSITION;
+        if (mSize == 0) return mAnchor < mItemCount ? mAnchor : NO_POSITION;
+        return getPositionAfter(getPosition(mSize - 1));
+    }
+
+    /**
+     * Returns the adapter position following the given one.
+     *
+     * @return The position or {@link #NO_POSITION} if the deck ends there.
+     */
+    public int getPositionAfter(int position) {
+        if (mItemCount == 0) return NO_POSITION;
+        if (position + 1 < mItemCount) return position + 1;
+        return mCircular ? 0 : NO_POSITION;
+    }
+
+    /**
+     * Returns the adapter position preceding the given one.
+     *
+     * @return The position or {@link #NO_POSITION} if the deck starts there.
+     */
+    public int getPositionBefore(int position) {
+        if (mItemCount == 0 || position == NO_POSITION) return NO_POSITION;
+        if (position > 0) return position - 1;
+        return mCircular ? mItemCount - 1 : NO_POSITION;
+    }
+
+    /**
+     * Returns whether another slot can be filled. In circular mode an item is never shown
+     * twice at the same time.
+     */
+    public boolean canFill() {
+        return mSize < mCapacity && mSize < mItemCount && getNextPosition() != NO_POSITION;
+    }
+
+    /**
+     * Fills the next position into a new bottom slot.
+     *
+     * @return The filled position or {@link #NO_POSITION} if no slot can be filled.
+     */
+    public int fill() {
+        if (!canFill()) return NO_POSITION;
+
+        int position = getNextPosition();
+        mSlots[(mHead + mSize) % mSlots.length] = position;
+        mSize++;
+        return position;
+    }
+
+    /**
+     * Removes the top slot.
+     *
+     * @return The position of the removed slot or {@link #NO_POSITION} if the stack is empty.
+     */
+    public int advance() {
+        if (mSize == 0) return NO_POSITION;
+
+        int position = getPosition(0);
+        mHead = (mHead + 1) % mSlots.length;
+        mSize--;
+        if (mSize == 0) {
+            mAnchor = getPositionAfter(position);
+        }
+        return position;
+    }
+
+    /**
+     * Puts the position preceding the top slot back on top. If all slots are occupied, the
+     * bottom slot is dropped.
+     *
+     * @return The restored position or {@link #NO_POSITION} if there is none.
+     */
+    public int rewind() {
+        int position = getPositionBefore(getTopPosition());
+        if (position == NO_POSITION || mCapacity == 0) return NO_POSITION;
+
+        if (mSize == mCapacity || mSize == mItemCount) mSize--;
+        mHead = (mHead - 1 + mSlots.length) % mSlots.length;
+        mSlots[mHead] = position;
+        mSize++;
+        return position;
+    }
+
+    /**
+     * Removes a slot, e.g. because its item was removed from the data set.
+     *
+     * @param depth The depth of the slot.
+     */
+    public void remove(int depth) {
+        if (depth == 0) {
+            advance();
+            return;
+        }
+        for (int x = depth; x < mSize - 1; x++) {
+            setPosition(x, getPosition(x + 1));
+        }
+        mSize--;
+    }
+
+    /**
+     * Rebuilds the slots after the data set was replaced: the top slot shows the given
+     * position and every slot below it the position following the one above, as far as the
+     * previous number of slots and the deck allow.
+     *
+     * @param topPosition The new position of the top slot.
+     */
+    public void rebase(int topPosition) {
+        int size = mSize;
+        reset(topPosition);
+        while (mSize < size && canFill()) {
+            fill();
+        }
+    }
+
+    /**
+     * Updates the slots after items were inserted into the data set.
+     */
+    public void onItemsInserted(int positionStart, int itemCount) {
+        boolean exhausted = mAnchor == NO_POSITION && positionStart >= mItemCount;
+        mItemCount += itemCount;
+        for (int depth = 0; depth < mSize; depth++) {
+            int position = getPosition(depth);
+            if (position >= positionStart) setPosition(depth, position + itemCount);
+        }
+        if (exhausted) {
+            // A finite deck which ran empty continues with the first new item.
+            mAnchor = positionStart;
+        } else if (mAnchor >= positionStart) {
+            mAnchor += itemCount;
+        }
+    }
+
+    /**
+     * Updates the slots after items were removed from the data set. Slots showing a
+     * removed item are removed as well.
+     */
+    public void onItemsRemoved(int positionStart, int itemCount) {
+        mItemCount -= itemCount;
+        for (int depth = mSize - 1; depth >= 0; depth--) {
+            int position = getPosition(depth);
+            if (position >= positionStart + itemCount) {
+                setPosition(depth, position - itemCount);
+            } else if (position >= positionStart) {
+                remove(depth);
+            }
+        }
+        if (mAnchor >= positionStart + itemCount) {
+            mAnchor -= itemCount;
+        } else if (mAnchor >= positionStart) {
+            mAnchor = positionStart;
+        }
+        if (mAnchor >= mItemCount) mAnchor = 0;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2016 Frederik Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package link.fls.swipestack;
+
+import android.graphics.Bitmap;
+import android.os.Bundle;
+import android.support.v4.app.Fragment;
+import android.support.v4.app.FragmentManager;
+import android.support.v4.util.LruCache;
+import android.util.SparseArray;
+
+/**
+ * A headless, retained fragment which keeps the bound data and decoded bitmaps of the cards
+ * across configuration changes, together with the position of the top card.
+ * <p>
+ * Views are not kept since they hold on to the old activity; the cards are created again
+ * from the retained data instead of going back to the data layer.
+ */
+public class SwipeStackRetainedCache extends Fragment {
+
+    public static final String DEFAULT_TAG = "link.fls.swipestack.SwipeStackRetainedCache";
+
+    private static final int NO_POSITION = -1;
+
+    private final SparseArray<Object> mCardData = new SparseArray<>();
+    private final LruCache<String, Bitmap> mBitmaps;
+    private int mTopPosition = NO_POSITION;
+
+    public SwipeStackRetainedCache() {
+        // Use an eighth of the available memory for bitmaps.
+        int maxKilobytes = (int) (Runtime.getRuntime().maxMemory() / 1024 / 8);
+        mBitmaps = new LruCache<String, Bitmap>(maxKilobytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getRowBytes() * bitmap.getHeight() / 1024;
+            }
+        };
+    }
+
+    /**
+     * Returns the cache retained by the given fragment manager, adding a new one if there is
+     * none yet.
+     *
+     * @param fragmentManager The fragment manager of the activity showing the stack.
+     * @param tag             The tag of the cache, one per stack.
+     * @return The retained cache.
+     */
+    public static SwipeStackRetainedCache get(FragmentManager fragmentManager, String tag) {
+        SwipeStackRetainedCache cache =
+                (SwipeStackRetainedCache) fragmentManager.findFragmentByTag(tag);
+        if (cache == null) {
+            cache = new SwipeStackRetainedCache();
+            fragmentManager.beginTransaction().add(cache, tag).commitAllowingStateLoss();
+        }
+        return cache;
+    }
+
+    @Override
+    public void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setRetainInstance(true);
+    }
+
+    /**
+     * Returns the data which was bound to the card at the given adapter position.
+     *
+     * @param position The adapter position.
+     * @return The data or null if none was stored.
+     */
+    public Object getCardData(int position) {
+        return mCardData.get(position);
+    }
+
+    /**
+     * Stores the data bound to the card at the given adapter position.
+     *
+     * @param position The adapter position.
+     * @param data     The bound data.
+     */
+    public void putCardData(int position, Object data) {
+        mCardData.put(position, data);
+    }
+
+    /**
+     * Returns a cache for decoded bitmaps which survives configuration changes.
+     *
+     * @return The bitmap cache, sized in kilobytes.
+     */
+    public LruCache<String, Bitmap> getBitmapCache() {
+        return mBitmaps;
+    }
+
+    /**
+     * Drops all retained data, e.g. after the deck was replaced.
+     */
+    public void clear() {
+        mCardData.clear();
+        mBitmaps.evictAll();
+        mTopPosition = NO_POSITION;
+    }
+
+    boolean hasTopPosition() {
+        return mTopPosition != NO_POSITION;
+    }
+
+    int getTopPosition() {
+        return mTopPosition;
+    }
+
+    void setTopPosition(int position) {
+        mTopPosition = position;
+    }
+
+    void clearTopPosition() {
+        mTopPosition = NO_POSITION;
+    }
+}
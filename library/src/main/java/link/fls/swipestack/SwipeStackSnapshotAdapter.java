@@ -0,0 +1,300 @@
+/*
+ * Copyright (C) 2016 Frederik Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package link.fls.swipestack;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.v4.app.Fragment;
+import android.support.v4.app.FragmentManager;
+import android.support.v4.app.FragmentPagerAdapter;
+import android.view.Choreographer;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link FragmentPagerAdapter} backed by immutable list snapshots which can be submitted
+ * from any thread.
+ * <p>
+ * Snapshots submitted in quick succession are merged; only the newest one is swapped in,
+ * on the main thread at the start of the next frame. A {@link SwipeStack} using this adapter
+ * keeps its top item once the snapshot changes and shows the items following it in the new
+ * snapshot below it, reusing the views it already has for them.
+ * <p>
+ * Whole decks can be replaced with {@link #submitList(List)}, which compares the old and the
+ * new items by id on a background thread so that the stack only drops and rebuilds the
+ * views of items which were removed or changed.
+ *
+ * @param <T> The type of the items.
+ */
+public abstract class SwipeStackSnapshotAdapter<T> extends FragmentPagerAdapter {
+
+    public static final long NO_ID = -1;
+
+    private static Executor sDiffExecutor;
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicReference<Snapshot<T>> mPendingSnapshot = new AtomicReference<>();
+    private final AtomicBoolean mSwapScheduled = new AtomicBoolean();
+    private final AtomicInteger mDiffGeneration = new AtomicInteger();
+    private volatile long mCoalesceMillis;
+    private List<T> mItems = Collections.emptyList();
+    private Diff mLastDiff;
+
+    private final Choreographer.FrameCallback mSwapFrameCallback =
+            new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    mSwapScheduled.set(false);
+                    Snapshot<T> snapshot = mPendingSnapshot.getAndSet(null);
+                    if (snapshot == null) return;
+
+                    // A diff is only valid against the items it was computed from.
+                    Diff diff = snapshot.diff;
+                    mLastDiff = diff != null && diff.mOldItems == mItems ? diff : null;
+                    mItems = snapshot.items;
+                    onSnapshotChanged(snapshot.items);
+                    notifyDataSetChanged();
+                    mLastDiff = null;
+                }
+            };
+
+    private final Runnable mScheduleSwapRunnable = new Runnable() {
+        @Override
+        public void run() {
+            Choreographer.getInstance().postFrameCallback(mSwapFrameCallback);
+        }
+    };
+
+    public SwipeStackSnapshotAdapter(FragmentManager fragmentManager) {
+        super(fragmentManager);
+    }
+
+    /**
+     * Submits a new snapshot of the items. May be called from any thread. The list must
+     * not be modified afterwards.
+     *
+     * @param items The new items.
+     */
+    public void submitSnapshot(List<T> items) {
+        mDiffGeneration.incrementAndGet();
+        submit(new Snapshot<>(Collections.unmodifiableList(items), null));
+    }
+
+    /**
+     * Replaces the whole deck. The old and the new items are compared by id on a background
+     * thread; views of items which are still present and unchanged are kept. Must be called
+     * from the main thread. The list must not be modified afterwards.
+     *
+     * @param items The new items.
+     */
+    public void submitList(List<T> items) {
+        final List<T> newItems = Collections.unmodifiableList(items);
+        Snapshot<T> pendingSnapshot = mPendingSnapshot.get();
+        final List<T> oldItems = pendingSnapshot != null ? pendingSnapshot.items : mItems;
+        final int generation = mDiffGeneration.incrementAndGet();
+
+        getDiffExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                final Diff diff = computeDiff(oldItems, newItems);
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation != mDiffGeneration.get()) return;
+                        submit(new Snapshot<>(newItems, diff));
+                    }
+                });
+            }
+        });
+    }
+
+    private void submit(Snapshot<T> snapshot) {
+        mPendingSnapshot.set(snapshot);
+        if (mSwapScheduled.compareAndSet(false, true)) {
+            mMainHandler.postDelayed(mScheduleSwapRunnable, mCoalesceMillis);
+        }
+    }
+
+    private Diff computeDiff(List<T> oldItems, List<T> newItems) {
+        Map<Long, T> oldItemsById = new HashMap<>(oldItems.size() * 2);
+        for (T item : oldItems) {
+            long itemId = getStableId(item);
+            if (itemId != NO_ID) oldItemsById.put(itemId, item);
+        }
+
+        Diff diff = new Diff(oldItems);
+        for (T item : newItems) {
+            T oldItem = oldItemsById.remove(getStableId(item));
+            if (oldItem != null && !areContentsTheSame(oldItem, item)) {
+                diff.mChangedIds.add(getStableId(item));
+            }
+        }
+        diff.mRemovedIds.addAll(oldItemsById.keySet());
+        return diff;
+    }
+
+    private static synchronized Executor getDiffExecutor() {
+        if (sDiffExecutor == null) {
+            sDiffExecutor = Executors.newSingleThreadExecutor();
+        }
+        return sDiffExecutor;
+    }
+
+    /**
+     * Returns the difference which led to the current snapshot. Only available while the
+     * observers are notified about a snapshot submitted with {@link #submitList(List)}.
+     *
+     * @return The difference or null if it is unknown.
+     */
+    public Diff getLastDiff() {
+        return mLastDiff;
+    }
+
+    /**
+     * Sets for how long submitted snapshots are collected before the newest one is swapped
+     * in. By default the snapshot is swapped in on the next frame.
+     *
+     * @param coalesceMillis The delay in milliseconds.
+     */
+    public void setCoalesceWindow(long coalesceMillis) {
+        mCoalesceMillis = coalesceMillis;
+    }
+
+    /**
+     * Returns the snapshot currently in use. Must be called from the main thread.
+     *
+     * @return The current items.
+     */
+    public List<T> getItems() {
+        return mItems;
+    }
+
+    /**
+     * Called on the main thread right before the observers are notified about a new
+     * snapshot.
+     *
+     * @param items The new items.
+     */
+    protected void onSnapshotChanged(List<T> items) {
+    }
+
+    /**
+     * Returns whether the view of an old item can keep showing the new item with the same id.
+     * Called on a background thread by {@link #submitList(List)}.
+     *
+     * @param oldItem The item of the old deck.
+     * @param newItem The item with the same id in the new deck.
+     * @return True if the view of the old item still shows the new item correctly.
+     */
+    protected boolean areContentsTheSame(T oldItem, T newItem) {
+        return oldItem.equals(newItem);
+    }
+
+    /**
+     * Creates the fragment which represents the given item.
+     *
+     * @param item     The item.
+     * @param position The position of the item in the current snapshot.
+     * @return The fragment creating the card view.
+     */
+    protected abstract Fragment createFragment(T item, int position);
+
+    /**
+     * Returns a stable id of the given item, used to find the item again in a new snapshot.
+     *
+     * @param item The item.
+     * @return The id, or {@link #NO_ID} if the item has no stable id.
+     */
+    protected abstract long getStableId(T item);
+
+    @Override
+    public Fragment getItem(int position) {
+        return createFragment(mItems.get(position), position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getStableId(mItems.get(position));
+    }
+
+    @Override
+    public int getCount() {
+        return mItems.size();
+    }
+
+    /**
+     * Returns the position of the item with the given id in the current snapshot.
+     *
+     * @param itemId       The stable id of the item.
+     * @param hintPosition The position where the item is expected, checked first.
+     * @return The position, or -1 if the snapshot doesn't contain the item.
+     */
+    public int getPositionForItemId(long itemId, int hintPosition) {
+        if (itemId == NO_ID) return -1;
+
+        List<T> items = mItems;
+        if (hintPosition >= 0 && hintPosition < items.size()
+                && getStableId(items.get(hintPosition)) == itemId) {
+            return hintPosition;
+        }
+        for (int position = 0; position < items.size(); position++) {
+            if (getStableId(items.get(position)) == itemId) return position;
+        }
+        return -1;
+    }
+
+    /**
+     * The ids of the items which were removed or changed between two snapshots.
+     */
+    public static class Diff {
+        private final List<?> mOldItems;
+        private final Set<Long> mRemovedIds = new HashSet<>();
+        private final Set<Long> mChangedIds = new HashSet<>();
+
+        Diff(List<?> oldItems) {
+            mOldItems = oldItems;
+        }
+
+        public boolean isRemoved(long itemId) {
+            return mRemovedIds.contains(itemId);
+        }
+
+        public boolean isChanged(long itemId) {
+            return mChangedIds.contains(itemId);
+        }
+    }
+
+    private static class Snapshot<T> {
+        final List<T> items;
+        final Diff diff;
+
+        Snapshot(List<T> items, Diff diff) {
+            this.items = items;
+            this.diff = diff;
+        }
+    }
+}
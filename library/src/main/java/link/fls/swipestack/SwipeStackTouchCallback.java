@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2016 Frederik Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package link.fls.swipestack;
+
+import android.graphics.Canvas;
+import android.support.annotation.Nullable;
+import android.support.v7.widget.RecyclerView;
+import android.support.v7.widget.helper.ItemTouchHelper;
+import android.view.View;
+
+/**
+ * An {@link ItemTouchHelper.Callback} which lets the user swipe the top view of a
+ * {@link SwipeStackLayoutManager} to the left / right.
+ * <p>
+ * The callback does not touch the adapter; remove the swiped item in
+ * {@link SwipeStack.SwipeStackListener#onViewSwipedToLeft(int)} /
+ * {@link SwipeStack.SwipeStackListener#onViewSwipedToRight(int)}.
+ */
+public class SwipeStackTouchCallback extends ItemTouchHelper.Callback {
+
+    private final SwipeStackLayoutManager mLayoutManager;
+    private SwipeStack.SwipeStackListener mListener;
+    private int mAllowedSwipeDirections = SwipeStack.SWIPE_DIRECTION_BOTH;
+    private float mSwipeRotation = SwipeStack.DEFAULT_SWIPE_ROTATION;
+    private float mSwipeOpacity = SwipeStack.DEFAULT_SWIPE_OPACITY;
+
+    public SwipeStackTouchCallback(SwipeStackLayoutManager layoutManager) {
+        mLayoutManager = layoutManager;
+    }
+
+    @Override
+    public int getMovementFlags(RecyclerView recyclerView, RecyclerView.ViewHolder viewHolder) {
+        if (viewHolder.getAdapterPosition() != 0) return 0;
+
+        int swipeFlags;
+        switch (mAllowedSwipeDirections) {
+            case SwipeStack.SWIPE_DIRECTION_ONLY_LEFT:
+                swipeFlags = ItemTouchHelper.LEFT;
+                break;
+            case SwipeStack.SWIPE_DIRECTION_ONLY_RIGHT:
+                swipeFlags = ItemTouchHelper.RIGHT;
+                break;
+            default:
+                swipeFlags = ItemTouchHelper.LEFT | ItemTouchHelper.RIGHT;
+        }
+        return makeMovementFlags(0, swipeFlags);
+    }
+
+    @Override
+    public boolean onMove(RecyclerView recyclerView, RecyclerView.ViewHolder viewHolder,
+                          RecyclerView.ViewHolder target) {
+        return false;
+    }
+
+    @Override
+    public float getSwipeThreshold(RecyclerView.ViewHolder viewHolder) {
+        // SwipeStack dismisses a view once its center leaves the middle third of the parent.
+        View parent = (View) viewHolder.itemView.getParent();
+        if (parent == null || viewHolder.itemView.getWidth() == 0) {
+            return super.getSwipeThreshold(viewHolder);
+        }
+        return (parent.getWidth() / 6f) / viewHolder.itemView.getWidth();
+    }
+
+    @Override
+    public void onSwiped(RecyclerView.ViewHolder viewHolder, int direction) {
+        if (mListener == null) return;
+
+        int position = viewHolder.getAdapterPosition();
+        if (direction == ItemTouchHelper.LEFT) {
+            mListener.onViewSwipedToLeft(position);
+        } else {
+            mListener.onViewSwipedToRight(position);
+        }
+
+        if (mLayoutManager.getItemCount() == 0) mListener.onStackEmpty();
+    }
+
+    @Override
+    public void onChildDraw(Canvas c, RecyclerView recyclerView,
+                            RecyclerView.ViewHolder viewHolder, float dX, float dY,
+                            int actionState, boolean isCurrentlyActive) {
+        super.onChildDraw(c, recyclerView, viewHolder, dX, dY, actionState, isCurrentlyActive);
+        if (actionState != ItemTouchHelper.ACTION_STATE_SWIPE) return;
+
+        float swipeProgress = Math.min(Math.max(dX / recyclerView.getWidth(), -1), 1);
+
+        if (mSwipeRotation > 0) {
+            viewHolder.itemView.setRotation(mSwipeRotation * swipeProgress);
+        }
+
+        if (mSwipeOpacity < 1f) {
+            viewHolder.itemView.setAlpha(1 - Math.min(Math.abs(swipeProgress * 2), 1));
+        }
+
+        mLayoutManager.setSwipeProgress(swipeProgress);
+    }
+
+    @Override
+    public void clearView(RecyclerView recyclerView, RecyclerView.ViewHolder viewHolder) {
+        super.clearView(recyclerView, viewHolder);
+        Object stackRotation = viewHolder.itemView.getTag(R.id.stack_rotation);
+        viewHolder.itemView.setRotation(stackRotation != null ? (Float) stackRotation : 0);
+        viewHolder.itemView.setAlpha(1);
+        mLayoutManager.setSwipeProgress(0);
+    }
+
+    /**
+     * Register a callback to be invoked when the user has swiped the top view
+     * left / right or when the stack gets empty.
+     *
+     * @param listener The callback that will run
+     */
+    public void setListener(@Nullable SwipeStack.SwipeStackListener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Sets the allowed swipe directions.
+     *
+     * @param directions One of {@link SwipeStack#SWIPE_DIRECTION_BOTH},
+     *                   {@link SwipeStack#SWIPE_DIRECTION_ONLY_LEFT},
+     *                   or {@link SwipeStack#SWIPE_DIRECTION_ONLY_RIGHT}.
+     */
+    public void setAllowedSwipeDirections(int directions) {
+        mAllowedSwipeDirections = directions;
+    }
+
+    public void setSwipeRotation(float rotation) {
+        mSwipeRotation = rotation;
+    }
+
+    public void setSwipeOpacity(float opacity) {
+        mSwipeOpacity = opacity;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2016 Frederik Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package link.fls.swipestack;
+
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * Adds sections for the work done by the stack to system traces, e.g. captured with systrace
+ * or Perfetto. Tracing is disabled by default and requires API level 18.
+ */
+public final class SwipeStackTrace {
+
+    private static final String PREFIX = "SwipeStack#";
+
+    private static boolean sEnabled;
+
+    private SwipeStackTrace() {
+    }
+
+    /**
+     * Enables or disables the trace sections of all stacks.
+     *
+     * @param enabled True to add trace sections.
+     */
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+    }
+
+    /**
+     * Begins a section which is tagged with the adapter position and the depth in the stack,
+     * 0 being the top view and -1 a view which is not on the stack. Pass the returned value
+     * to {@link #end(boolean)} on the same thread, which keeps the sections balanced when
+     * tracing gets toggled in between.
+     */
+    static boolean begin(String name, int position, int depth) {
+        if (!isEnabled()) return false;
+        Trace.beginSection(PREFIX + name + " position=" + position + " depth=" + depth);
+        return true;
+    }
+
+    /**
+     * Ends the section started by the matching begin call.
+     *
+     * @param begun The value returned by the begin call.
+     */
+    static void end(boolean begun) {
+        if (begun) {
+            Trace.endSection();
+        }
+    }
+
+}
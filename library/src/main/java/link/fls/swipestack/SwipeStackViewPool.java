@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2016 Frederik Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package link.fls.swipestack;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.v4.app.FragmentPagerAdapter;
+import android.util.SparseArray;
+import android.view.LayoutInflater;
+import android.view.View;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * A pool of card views which can be shared by several {@link SwipeStack} instances.
+ * <p>
+ * Views are kept per adapter and adapter position, so a view created by
+ * {@link #prewarm(FragmentPagerAdapter, LayoutInflater, int)} is handed to the first stack
+ * which needs that position of that adapter. All methods must be called from the main thread.
+ * <p>
+ * Pooled views and pending work keep the adapter and the context of its views reachable. A
+ * stack using the pool clears the entries of its adapter when it gets another adapter or is
+ * detached from the window; call {@link #clear(FragmentPagerAdapter)} yourself for adapters
+ * which are prewarmed but never shown.
+ */
+public class SwipeStackViewPool {
+
+    public static final int DEFAULT_MAX_VIEWS_PER_ADAPTER = 5;
+
+    private static SwipeStackViewPool sDefaultPool;
+
+    private final Map<FragmentPagerAdapter, SparseArray<View>> mViews = new HashMap<>();
+    private final LinkedList<PendingView> mPendingViews = new LinkedList<>();
+    private int mMaxViewsPerAdapter = DEFAULT_MAX_VIEWS_PER_ADAPTER;
+    private boolean mIdleHandlerAdded;
+
+    private final MessageQueue.IdleHandler mIdleHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            PendingView pendingView = mPendingViews.poll();
+            if (pendingView != null) {
+                createView(pendingView);
+            }
+            mIdleHandlerAdded = !mPendingViews.isEmpty();
+            return mIdleHandlerAdded;
+        }
+    };
+
+    /**
+     * Returns a pool shared by the whole process.
+     *
+     * @return The default pool.
+     */
+    public static SwipeStackViewPool getDefault() {
+        if (sDefaultPool == null) {
+            sDefaultPool = new SwipeStackViewPool();
+        }
+        return sDefaultPool;
+    }
+
+    /**
+     * Creates the views for the first positions of an adapter ahead of time. The views are
+     * created one at a time while the main thread is idle.
+     *
+     * @param adapter        The adapter which creates the views.
+     * @param layoutInflater The inflater passed to the adapter's fragments.
+     * @param count          The number of positions to create, starting at position 0.
+     */
+    public void prewarm(FragmentPagerAdapter adapter, LayoutInflater layoutInflater, int count) {
+        count = Math.min(Math.min(count, adapter.getCount()), mMaxViewsPerAdapter);
+        for (int position = 0; position < count; position++) {
+            mPendingViews.add(new PendingView(adapter, layoutInflater, position));
+        }
+
+        if (!mIdleHandlerAdded && !mPendingViews.isEmpty()) {
+            mIdleHandlerAdded = true;
+            Looper.myQueue().addIdleHandler(mIdleHandler);
+        }
+    }
+
+    /**
+     * Takes a pooled view out of the pool.
+     *
+     * @param adapter  The adapter which created the view.
+     * @param position The adapter position of the view.
+     * @return The view, or null if the pool doesn't hold a view for that position.
+     */
+    View obtain(FragmentPagerAdapter adapter, int position) {
+        SparseArray<View> views = mViews.get(adapter);
+        if (views == null) return null;
+
+        View view = views.get(position);
+        if (view != null) {
+            views.remove(position);
+            if (view.getParent() != null) return null;
+        }
+        return view;
+    }
+
+    /**
+     * Drops all pooled and pending views of an adapter, e.g. after its data changed.
+     *
+     * @param adapter The adapter which created the views.
+     */
+    public void clear(FragmentPagerAdapter adapter) {
+        mViews.remove(adapter);
+        for (int x = mPendingViews.size() - 1; x >= 0; x--) {
+            if (mPendingViews.get(x).adapter == adapter) mPendingViews.remove(x);
+        }
+    }
+
+    /**
+     * Drops all pooled and pending views.
+     */
+    public void clear() {
+        mViews.clear();
+        mPendingViews.clear();
+    }
+
+    /**
+     * Sets how many views the pool keeps for a single adapter.
+     *
+     * @param maxViews The maximum number of views per adapter.
+     */
+    public void setMaxViewsPerAdapter(int maxViews) {
+        mMaxViewsPerAdapter = maxViews;
+    }
+
+    private void createView(PendingView pendingView) {
+        FragmentPagerAdapter adapter = pendingView.adapter;
+        if (pendingView.position >= adapter.getCount()) return;
+
+        SparseArray<View> views = mViews.get(adapter);
+        if (views == null) {
+            views = new SparseArray<>();
+            mViews.put(adapter, views);
+        }
+        if (views.get(pendingView.position) != null || views.size() >= mMaxViewsPerAdapter) return;
+
+        View view = adapter.getItem(pendingView.position)
+                .onCreateView(pendingView.layoutInflater, null, null);
+        views.put(pendingView.position, view);
+    }
+
+    private static class PendingView {
+        final FragmentPagerAdapter adapter;
+        final LayoutInflater layoutInflater;
+        final int position;
+
+        PendingView(FragmentPagerAdapter adapter, LayoutInflater layoutInflater, int position) {
+            this.adapter = adapter;
+            this.layoutInflater = layoutInflater;
+            this.position = position;
+        }
+    }
+}
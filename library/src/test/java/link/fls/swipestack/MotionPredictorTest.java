@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2016 Frederik Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package link.fls.swipestack;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MotionPredictorTest {
+
+    private static final long SAMPLE_INTERVAL = 8;
+    private static final long HORIZON = 16;
+    private static final float MAX_DISTANCE = 100;
+
+    @Test
+    public void steadyMotionKeepsTheFullOffset() {
+        MotionPredictor predictor = new MotionPredictor(MAX_DISTANCE);
+        predictor.setHorizon(HORIZON);
+
+        for (int x = 0; x < 20; x++) {
+            long time = x * SAMPLE_INTERVAL;
+            predictor.addSample(time, time, 0);
+            if (x > 0) {
+                assertEquals(16f, predictor.getOffsetX(), .01f);
+                assertEquals(0f, predictor.getOffsetY(), .01f);
+            }
+        }
+    }
+
+    @Test
+    public void offsetIsClampedToTheMaxDistance() {
+        MotionPredictor predictor = new MotionPredictor(24);
+        predictor.setHorizon(HORIZON);
+
+        predictor.addSample(0, 0, 0);
+        predictor.addSample(SAMPLE_INTERVAL, 80, 0);
+
+        assertEquals(24f, predictor.getOffsetX(), .01f);
+    }
+
+    @Test
+    public void reversalReducesTheOffset() {
+        MotionPredictor predictor = new MotionPredictor(MAX_DISTANCE);
+        predictor.setHorizon(HORIZON);
+
+        predictor.addSample(0, 0, 0);
+        predictor.addSample(8, 8, 0);
+        predictor.addSample(16, 16, 0);
+        float offsetBefore = predictor.getOffsetX();
+        predictor.addSample(24, 16, 0);
+
+        assertTrue(predictor.getOffsetX() < offsetBefore / 2);
+    }
+
+    @Test
+    public void resetForgetsTheSamples() {
+        MotionPredictor predictor = new MotionPredictor(MAX_DISTANCE);
+        predictor.addSample(0, 0, 0);
+        predictor.addSample(8, 8, 0);
+
+        predictor.reset();
+
+        assertEquals(0f, predictor.getOffsetX(), 0f);
+        assertEquals(0f, predictor.getOffsetY(), 0f);
+    }
+
+    @Test
+    public void evaluateSteadyMotion() {
+        int count = 50;
+        long[] times = new long[count];
+        float[] xs = new float[count];
+        float[] ys = new float[count];
+        for (int x = 0; x < count; x++) {
+            times[x] = x * SAMPLE_INTERVAL;
+            xs[x] = times[x];
+            ys[x] = times[x] / 2f;
+        }
+
+        MotionPredictor.Evaluation evaluation =
+                MotionPredictor.evaluate(times, xs, ys, HORIZON, MAX_DISTANCE);
+
+        assertEquals(count - 2, evaluation.samples);
+        assertEquals(Math.hypot(16, 8), evaluation.meanErrorWithoutPrediction, .01f);
+        // Only the first sample has no velocity yet.
+        assertTrue(evaluation.meanErrorWithPrediction < 1f);
+    }
+
+    @Test
+    public void evaluateSineDragReducesTheLag() {
+        int count = 250;
+        long[] times = new long[count];
+        float[] xs = new float[count];
+        float[] ys = new float[count];
+        for (int x = 0; x < count; x++) {
+            times[x] = x * SAMPLE_INTERVAL;
+            xs[x] = (float) (300 * Math.sin(times[x] / 300.0));
+        }
+
+        MotionPredictor.Evaluation evaluation =
+                MotionPredictor.evaluate(times, xs, ys, HORIZON, MAX_DISTANCE);
+
+        assertTrue(evaluation.meanErrorWithPrediction
+                < evaluation.meanErrorWithoutPrediction / 2);
+    }
+
+    @Test
+    public void evaluateWithoutEnoughSamples() {
+        MotionPredictor.Evaluation evaluation = MotionPredictor.evaluate(
+                new long[]{0, 8}, new float[]{0, 8}, new float[]{0, 0}, HORIZON, MAX_DISTANCE);
+
+        assertEquals(0, evaluation.samples);
+        assertEquals(0f, evaluation.meanErrorWithoutPrediction, 0f);
+        assertEquals(0f, evaluation.meanErrorWithPrediction, 0f);
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright (C) 2016 Frederik Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package link.fls.swipestack;
+
+import org.junit.Test;
+
+import static link.fls.swipestack.SwipeStackModel.NO_POSITION;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SwipeStackModelTest {
+
+    private static SwipeStackModel createModel(int capacity, int itemCount, boolean circular) {
+        SwipeStackModel model = new SwipeStackModel(capacity, circular);
+        model.setItemCount(itemCount);
+        model.reset(0);
+        while (model.canFill()) {
+            model.fill();
+        }
+        return model;
+    }
+
+    private static void assertPositions(SwipeStackModel model, int... positions) {
+        assertEquals(positions.length, model.size());
+        for (int depth = 0; depth < positions.length; depth++) {
+            assertEquals(positions[depth], model.getPosition(depth));
+        }
+    }
+
+    @Test
+    public void fillStopsAtCapacity() {
+        SwipeStackModel model = createModel(3, 10, true);
+
+        assertPositions(model, 0, 1, 2);
+        assertFalse(model.canFill());
+        assertEquals(NO_POSITION, model.fill());
+        assertEquals(0, model.getTopPosition());
+        assertEquals(3, model.getNextPosition());
+    }
+
+    @Test
+    public void fillNeverShowsAnItemTwice() {
+        SwipeStackModel model = createModel(3, 2, true);
+
+        assertPositions(model, 0, 1);
+        assertFalse(model.canFill());
+    }
+
+    @Test
+    public void resetStartsAtTheGivenPosition() {
+        SwipeStackModel model = createModel(3, 10, true);
+
+        model.reset(5);
+
+        assertEquals(0, model.size());
+        assertEquals(5, model.getTopPosition());
+        assertEquals(5, model.fill());
+    }
+
+    @Test
+    public void resetBeyondTheDeckStartsAtTheFirstItem() {
+        SwipeStackModel model = createModel(3, 10, true);
+
+        model.reset(10);
+
+        assertEquals(0, model.getNextPosition());
+    }
+
+    @Test
+    public void advanceRemovesTheTopSlot() {
+        SwipeStackModel model = createModel(3, 10, true);
+
+        assertEquals(0, model.advance());
+        assertPositions(model, 1, 2);
+        assertEquals(3, model.fill());
+        assertPositions(model, 1, 2, 3);
+    }
+
+    @Test
+    public void circularDeckWrapsAround() {
+        SwipeStackModel model = createModel(3, 4, true);
+
+        for (int x = 0; x < 4; x++) {
+            model.advance();
+            model.fill();
+        }
+
+        assertPositions(model, 0, 1, 2);
+        assertEquals(3, model.getPositionBefore(0));
+        assertEquals(0, model.getPositionAfter(3));
+    }
+
+    @Test
+    public void finiteDeckRunsEmpty() {
+        SwipeStackModel model = createModel(3, 4, false);
+
+        model.advance();
+        assertEquals(3, model.fill());
+        assertFalse(model.canFill());
+
+        model.advance();
+        model.advance();
+        assertEquals(3, model.advance());
+
+        assertEquals(0, model.size());
+        assertEquals(NO_POSITION, model.getTopPosition());
+        assertFalse(model.canFill());
+        assertEquals(NO_POSITION, model.getPositionAfter(3));
+        assertEquals(NO_POSITION, model.getPositionBefore(0));
+    }
+
+    @Test
+    public void advanceOnAnEmptyStack() {
+        SwipeStackModel model = createModel(3, 0, true);
+
+        assertEquals(NO_POSITION, model.advance());
+        assertEquals(NO_POSITION, model.getTopPosition());
+    }
+
+    @Test
+    public void rewindPutsThePreviousPositionOnTop() {
+        SwipeStackModel model = createModel(3, 10, true);
+        model.advance();
+        model.advance();
+        model.fill();
+
+        assertEquals(1, model.rewind());
+        assertPositions(model, 1, 2, 3);
+    }
+
+    @Test
+    public void rewindWrapsInCircularMode() {
+        SwipeStackModel model = createModel(3, 10, true);
+
+        assertEquals(9, model.rewind());
+        assertPositions(model, 9, 0, 1);
+    }
+
+    @Test
+    public void rewindStopsAtTheStartOfAFiniteDeck() {
+        SwipeStackModel model = createModel(3, 10, false);
+
+        assertEquals(NO_POSITION, model.rewind());
+        assertPositions(model, 0, 1, 2);
+    }
+
+    @Test
+    public void removeShiftsTheSlotsBelow() {
+        SwipeStackModel model = createModel(3, 10, true);
+
+        model.remove(1);
+        assertPositions(model, 0, 2);
+        assertEquals(3, model.fill());
+
+        model.remove(0);
+        assertPositions(model, 2, 3);
+    }
+
+    @Test
+    public void itemsInsertedAboveTheSlotsShiftThem() {
+        SwipeStackModel model = createModel(3, 10, true);
+        model.advance();
+
+        model.onItemsInserted(0, 2);
+
+        assertEquals(12, model.getItemCount());
+        assertPositions(model, 3, 4);
+        assertEquals(5, model.fill());
+    }
+
+    @Test
+    public void itemsInsertedBelowTheSlotsDontMoveThem() {
+        SwipeStackModel model = createModel(3, 10, true);
+
+        model.onItemsInserted(5, 2);
+
+        assertPositions(model, 0, 1, 2);
+    }
+
+    @Test
+    public void itemsInsertedIntoAnExhaustedFiniteDeck() {
+        SwipeStackModel model = createModel(3, 2, false);
+        model.advance();
+        model.advance();
+        assertFalse(model.canFill());
+
+        model.onItemsInserted(2, 3);
+
+        assertEquals(2, model.getTopPosition());
+        assertEquals(2, model.fill());
+    }
+
+    @Test
+    public void itemsRemovedDropTheirSlots() {
+        SwipeStackModel model = createModel(3, 10, true);
+
+        model.onItemsRemoved(1, 1);
+
+        assertEquals(9, model.getItemCount());
+        assertPositions(model, 0, 1);
+        assertEquals(2, model.fill());
+    }
+
+    @Test
+    public void itemsRemovedAboveTheSlotsShiftThem() {
+        SwipeStackModel model = createModel(3, 10, true);
+        model.advance();
+        model.advance();
+        model.fill();
+        model.fill();
+
+        model.onItemsRemoved(0, 2);
+
+        assertPositions(model, 0, 1, 2);
+    }
+
+    @Test
+    public void removingTheLastItemsEmptiesTheStack() {
+        SwipeStackModel model = createModel(3, 2, true);
+
+        model.onItemsRemoved(0, 2);
+
+        assertEquals(0, model.size());
+        assertEquals(NO_POSITION, model.getTopPosition());
+    }
+
+    @Test
+    public void rebaseAfterAReorderNeverShowsAnItemTwice() {
+        // A, B, C, D shows A, B, C; the new deck C, B, A, D moves A to position 2.
+        SwipeStackModel model = createModel(3, 4, true);
+
+        model.rebase(2);
+        assertPositions(model, 2, 3, 0);
+
+        model.advance();
+        model.fill();
+        assertPositions(model, 3, 0, 1);
+    }
+
+    @Test
+    public void rebaseShowsItemsInsertedIntoTheWindow() {
+        // A, B, C, D, E gets X inserted after A.
+        SwipeStackModel model = createModel(3, 5, false);
+        model.setItemCount(6);
+
+        model.rebase(0);
+        assertPositions(model, 0, 1, 2);
+
+        model.advance();
+        model.fill();
+        assertPositions(model, 1, 2, 3);
+    }
+
+    @Test
+    public void rebaseNearTheEndOfAFiniteDeck() {
+        SwipeStackModel model = createModel(3, 5, false);
+
+        model.rebase(3);
+
+        assertPositions(model, 3, 4);
+        assertFalse(model.canFill());
+    }
+
+    @Test
+    public void setItemCountResumesAnExhaustedFiniteDeck() {
+        SwipeStackModel model = createModel(3, 2, false);
+        model.advance();
+        model.advance();
+
+        model.setItemCount(4);
+
+        assertTrue(model.canFill());
+        assertEquals(2, model.fill());
+    }
+
+    @Test
+    public void setCapacityDropsTheBottomSlots() {
+        SwipeStackModel model = createModel(3, 10, true);
+
+        model.setCapacity(2);
+        assertPositions(model, 0, 1);
+
+        model.setCapacity(4);
+        assertEquals(2, model.fill());
+        assertEquals(3, model.fill());
+        assertPositions(model, 0, 1, 2, 3);
+    }
+}
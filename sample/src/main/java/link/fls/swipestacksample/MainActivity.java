@@ -35,6 +35,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import link.fls.swipestack.SwipeStack;
+import link.fls.swipestack.SwipeStackRetainedCache;
 
 public class MainActivity extends AppCompatActivity implements SwipeStack.SwipeStackListener,
         View.OnClickListener, SwipeStack.SwipeStackIndexListener {
@@ -64,6 +65,8 @@ public class MainActivity extends AppCompatActivity implements SwipeStack.SwipeS
 
         mData = new ArrayList<>();
         mAdapter = new MyFlightsCardAdapter(getSupportFragmentManager(), 1);
+        mSwipeStack.setRetainedCache(SwipeStackRetainedCache.get(
+                getSupportFragmentManager(), SwipeStackRetainedCache.DEFAULT_TAG));
         mSwipeStack.setAdapter(mAdapter, getLayoutInflater());
         mSwipeStack.setListener(this);
         mSwipeStack.setIndexListener(this);
@@ -111,6 +114,9 @@ public class MainActivity extends AppCompatActivity implements SwipeStack.SwipeS
                         Intent.ACTION_VIEW, Uri.parse("https://github.com/flschweiger/SwipeStack"));
                 startActivity(browserIntent);
                 return true;
+            case R.id.menuStress:
+                startActivity(new Intent(this, StressActivity.class));
+                return true;
         }
 
         return super.onOptionsItemSelected(item);
@@ -34,4 +34,15 @@ public class MyFlightCardFragment extends Fragment {
         return mView;
     }
 
+    /**
+     * Drops the card view once the stack is done with it.
+     *
+     * @return False if the fragment has created a newer view which is still in use.
+     */
+    public boolean releaseView(View view) {
+        if (mView != view) return false;
+        mView = null;
+        return true;
+    }
+
 }
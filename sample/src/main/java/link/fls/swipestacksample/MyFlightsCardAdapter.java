@@ -3,35 +3,50 @@ package link.fls.swipestacksample;
 import android.support.v4.app.Fragment;
 import android.support.v4.app.FragmentManager;
 import android.support.v4.app.FragmentPagerAdapter;
+import android.util.SparseArray;
+import android.view.View;
 
-import java.util.LinkedList;
-import java.util.List;
+import link.fls.swipestack.SwipeStack;
 
-public class MyFlightsCardAdapter extends FragmentPagerAdapter {
+public class MyFlightsCardAdapter extends FragmentPagerAdapter
+        implements SwipeStack.SwipeStackReleaseListener {
 
-    List<MyFlightCardFragment> fragments;
+    private final SparseArray<MyFlightCardFragment> fragments;
+    private int count;
 
     public MyFlightsCardAdapter(FragmentManager fragmentManager, int count) {
         super(fragmentManager);
-        fragments = new LinkedList<>();
-        for (int i = 0; i < count; i++) {
-            fragments.add(new MyFlightCardFragment(i));
-        }
+        fragments = new SparseArray<>();
+        this.count = count;
     }
 
     @Override
     public Fragment getItem(int position) {
         if (position >= getCount()) return null;
-        return fragments.get(position);
+        MyFlightCardFragment fragment = fragments.get(position);
+        if (fragment == null) {
+            // Fragments of released cards are created again when the stack comes back to them.
+            fragment = new MyFlightCardFragment(position);
+            fragments.put(position, fragment);
+        }
+        return fragment;
     }
 
     @Override
     public int getCount() {
-        return fragments.size();
+        return count;
+    }
+
+    @Override
+    public void onViewReleased(int position, View view) {
+        MyFlightCardFragment fragment = fragments.get(position);
+        if (fragment != null && fragment.releaseView(view)) {
+            fragments.remove(position);
+        }
     }
 
     public void addNewFragment() {
-        fragments.add(new MyFlightCardFragment(fragments.size()));
+        count++;
         notifyDataSetChanged();
     }
 
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2016 Frederik Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package link.fls.swipestacksample;
+
+import android.view.Choreographer;
+import android.widget.TextView;
+
+import link.fls.swipestack.SwipeStack;
+
+/**
+ * Measures the frame times while it is running and shows them together with the inflate and
+ * bind counts, the number of views on the stack and the used heap.
+ */
+public class PerformanceHud implements Choreographer.FrameCallback {
+
+    private static final long UPDATE_INTERVAL_NANOS = 500000000L;
+    private static final long JANK_THRESHOLD_NANOS = 25000000L;
+    private static final float NANOS_PER_MILLI = 1000000f;
+    private static final float BYTES_PER_MEGABYTE = 1024f * 1024f;
+
+    private final TextView mTextView;
+    private final SwipeStack mSwipeStack;
+    private final StressCardAdapter mAdapter;
+
+    private boolean mRunning;
+    private long mLastFrameTime;
+    private long mWindowStartTime;
+    private long mWindowFrameTimeSum;
+    private long mWindowMaxFrameTime;
+    private int mWindowFrames;
+    private int mJankyFrames;
+    private int mSwipeCount;
+
+    public PerformanceHud(TextView textView, SwipeStack swipeStack, StressCardAdapter adapter) {
+        mTextView = textView;
+        mSwipeStack = swipeStack;
+        mAdapter = adapter;
+    }
+
+    public void start() {
+        if (mRunning) return;
+        mRunning = true;
+        mLastFrameTime = 0;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    public void stop() {
+        mRunning = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+    }
+
+    public void onViewSwiped() {
+        mSwipeCount++;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mRunning) return;
+
+        if (mLastFrameTime > 0) {
+            long frameTime = frameTimeNanos - mLastFrameTime;
+            mWindowFrameTimeSum += frameTime;
+            mWindowMaxFrameTime = Math.max(mWindowMaxFrameTime, frameTime);
+            mWindowFrames++;
+            if (frameTime > JANK_THRESHOLD_NANOS) mJankyFrames++;
+        } else {
+            mWindowStartTime = frameTimeNanos;
+        }
+        mLastFrameTime = frameTimeNanos;
+
+        if (frameTimeNanos - mWindowStartTime >= UPDATE_INTERVAL_NANOS && mWindowFrames > 0) {
+            update();
+            mWindowStartTime = frameTimeNanos;
+            mWindowFrameTimeSum = 0;
+            mWindowMaxFrameTime = 0;
+            mWindowFrames = 0;
+        }
+
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    private void update() {
+        Runtime runtime = Runtime.getRuntime();
+        float usedHeap = (runtime.totalMemory() - runtime.freeMemory()) / BYTES_PER_MEGABYTE;
+        float maxHeap = runtime.maxMemory() / BYTES_PER_MEGABYTE;
+
+        mTextView.setText(mTextView.getContext().getString(R.string.stress_hud,
+                mWindowFrameTimeSum / mWindowFrames / NANOS_PER_MILLI,
+                mWindowMaxFrameTime / NANOS_PER_MILLI,
+                mJankyFrames,
+                mAdapter.getInflateCount(),
+                mAdapter.getBindCount(),
+                mSwipeStack.getChildCount(),
+                mSwipeCount,
+                usedHeap,
+                maxHeap));
+    }
+
+}
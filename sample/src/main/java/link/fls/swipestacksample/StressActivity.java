@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2016 Frederik Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package link.fls.swipestacksample;
+
+import android.os.Bundle;
+import android.support.v7.app.AppCompatActivity;
+import android.view.Menu;
+import android.view.MenuInflater;
+import android.view.MenuItem;
+import android.widget.TextView;
+
+import link.fls.swipestack.SwipeStack;
+
+/**
+ * Swipes through a deck of 100,000 cards without pause and shows how the stack performs.
+ * Use it as the reference scenario when judging a performance change to the library.
+ */
+public class StressActivity extends AppCompatActivity implements SwipeStack.SwipeStackListener {
+
+    private static final int CARD_COUNT = 100000;
+    private static final int SWIPE_INTERVAL = 150;
+
+    private SwipeStack mSwipeStack;
+    private PerformanceHud mHud;
+
+    private boolean mRunning;
+    private boolean mSwipeToLeft;
+
+    private final Runnable mSwipeRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (!mRunning) return;
+            if (mSwipeToLeft) {
+                mSwipeStack.swipeTopViewToLeft();
+            } else {
+                mSwipeStack.swipeTopViewToRight();
+            }
+            mSwipeToLeft = !mSwipeToLeft;
+            mSwipeStack.postDelayed(this, SWIPE_INTERVAL);
+        }
+    };
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_stress);
+
+        StressCardAdapter adapter = new StressCardAdapter(getSupportFragmentManager(), CARD_COUNT);
+
+        mSwipeStack = (SwipeStack) findViewById(R.id.swipeStack);
+        mSwipeStack.setAdapter(adapter, getLayoutInflater());
+        mSwipeStack.setListener(this);
+
+        mHud = new PerformanceHud((TextView) findViewById(R.id.textViewHud), mSwipeStack, adapter);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        mHud.start();
+        setRunning(true);
+    }
+
+    @Override
+    protected void onPause() {
+        setRunning(false);
+        mHud.stop();
+        super.onPause();
+    }
+
+    private void setRunning(boolean running) {
+        mRunning = running;
+        mSwipeStack.removeCallbacks(mSwipeRunnable);
+        if (running) {
+            mSwipeStack.postDelayed(mSwipeRunnable, SWIPE_INTERVAL);
+        }
+        supportInvalidateOptionsMenu();
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        MenuInflater inflater = getMenuInflater();
+        inflater.inflate(R.menu.stress, menu);
+        return true;
+    }
+
+    @Override
+    public boolean onPrepareOptionsMenu(Menu menu) {
+        menu.findItem(R.id.menuPause).setVisible(mRunning);
+        menu.findItem(R.id.menuResume).setVisible(!mRunning);
+        return super.onPrepareOptionsMenu(menu);
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+
+        switch (item.getItemId()) {
+            case R.id.menuPause:
+                setRunning(false);
+                return true;
+            case R.id.menuResume:
+                setRunning(true);
+                return true;
+        }
+
+        return super.onOptionsItemSelected(item);
+    }
+
+    @Override
+    public void onViewSwipedToLeft(int position) {
+        mHud.onViewSwiped();
+    }
+
+    @Override
+    public void onViewSwipedToRight(int position) {
+        mHud.onViewSwiped();
+    }
+
+    @Override
+    public void onStackEmpty() {
+        setRunning(false);
+    }
+
+}
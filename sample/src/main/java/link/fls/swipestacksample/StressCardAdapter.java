@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2016 Frederik Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package link.fls.swipestacksample;
+
+import android.support.v4.app.Fragment;
+import android.support.v4.app.FragmentManager;
+import android.support.v4.app.FragmentPagerAdapter;
+import android.util.SparseArray;
+import android.view.View;
+
+import link.fls.swipestack.SwipeStack;
+
+/**
+ * An adapter for a very large deck. The card content is derived from the position, so only
+ * the fragments of the cards currently on the stack exist.
+ */
+public class StressCardAdapter extends FragmentPagerAdapter
+        implements SwipeStack.SwipeStackReleaseListener {
+
+    private final SparseArray<StressCardFragment> mFragments;
+    private final int mCount;
+
+    private int mInflateCount;
+    private int mBindCount;
+
+    public StressCardAdapter(FragmentManager fragmentManager, int count) {
+        super(fragmentManager);
+        mFragments = new SparseArray<>();
+        mCount = count;
+    }
+
+    @Override
+    public Fragment getItem(int position) {
+        if (position >= getCount()) return null;
+        StressCardFragment fragment = mFragments.get(position);
+        if (fragment == null) {
+            fragment = new StressCardFragment(this, position);
+            mFragments.put(position, fragment);
+        }
+        return fragment;
+    }
+
+    @Override
+    public int getCount() {
+        return mCount;
+    }
+
+    @Override
+    public void onViewReleased(int position, View view) {
+        StressCardFragment fragment = mFragments.get(position);
+        if (fragment != null && fragment.releaseView(view)) {
+            mFragments.remove(position);
+        }
+    }
+
+    /**
+     * Returns the text shown on the card at the given position.
+     */
+    public String getCardText(int position) {
+        return "#" + (position + 1);
+    }
+
+    public int getInflateCount() {
+        return mInflateCount;
+    }
+
+    public int getBindCount() {
+        return mBindCount;
+    }
+
+    void onCardInflated() {
+        mInflateCount++;
+    }
+
+    void onCardBound() {
+        mBindCount++;
+    }
+
+}
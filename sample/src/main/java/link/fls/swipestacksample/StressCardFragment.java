@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2016 Frederik Schweiger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package link.fls.swipestacksample;
+
+import android.os.Bundle;
+import android.support.v4.app.Fragment;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+/**
+ * A card of the {@link StressCardAdapter}.
+ */
+public class StressCardFragment extends Fragment {
+
+    private StressCardAdapter mAdapter;
+    private View mView;
+    private int mPosition;
+
+    public StressCardFragment() {
+        // Required empty public constructor
+    }
+
+    public StressCardFragment(StressCardAdapter adapter, int position) {
+        mAdapter = adapter;
+        mPosition = position;
+    }
+
+    @Override
+    public View onCreateView(LayoutInflater inflater, ViewGroup container,
+                             Bundle savedInstanceState) {
+        mView = inflater.inflate(R.layout.card, container, false);
+        mAdapter.onCardInflated();
+
+        ((TextView) mView.findViewById(R.id.textViewCard)).setText(mAdapter.getCardText(mPosition));
+        mAdapter.onCardBound();
+        return mView;
+    }
+
+    /**
+     * Drops the card view once the stack is done with it.
+     *
+     * @return False if the fragment has created a newer view which is still in use.
+     */
+    public boolean releaseView(View view) {
+        if (mView != view) return false;
+        mView = null;
+        return true;
+    }
+
+}